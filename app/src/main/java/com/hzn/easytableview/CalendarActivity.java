@@ -128,6 +128,8 @@ public class CalendarActivity extends AppCompatActivity {
 
     private void initCalendar() {
         calendar = (EasyTableView) findViewById(R.id.calendar);
+        // most cells of the calendar are empty
+        calendar.setStoreMode(EasyTableView.STORE_MODE_SPARSE);
         calendar.setOnCellClickListener(new EasyTableView.OnCellClickListener() {
             @Override
             public void onCellClick(CellInfo cellInfo) {
@@ -53,7 +53,10 @@ public class CircleDecoration implements EasyDecoration {
     public void draw(Canvas canvas) {
         if (null == decorationInfoList || decorationInfoList.size() < 0)
             return;
-        for (CircleDecorationInfo info : decorationInfoList) {
+        // traverse by index, avoid creating an iterator while drawing
+        int size = decorationInfoList.size();
+        for (int i = 0; i < size; i++) {
+            CircleDecorationInfo info = decorationInfoList.get(i);
             if (info.radius <= 0 || null == info.cellInfo)
                 continue;
             float cx = info.cellInfo.getStartX() + info.cellInfo.width / 2.0f;
@@ -27,6 +27,7 @@ public class RangeDecoration implements EasyDecoration {
     private Paint bgPaint;
     private Path startPath;
     private Path endPath;
+    private RectF arcRectF;
 
     public RangeDecoration(int start, int end, float radius, int bgColor, ArrayList<CellInfo> cellInfos) {
         this.start = start;
@@ -48,6 +49,7 @@ public class RangeDecoration implements EasyDecoration {
         bgPaint.setAntiAlias(true);
         startPath = new Path();
         endPath = new Path();
+        arcRectF = new RectF();
     }
 
     private void initStartPath() {
@@ -57,10 +59,10 @@ public class RangeDecoration implements EasyDecoration {
         CellInfo cellInfo = cellInfos.get(start);
         float cx = cellInfo.getStartX() + cellInfo.width / 2.0f;
         float cy = cellInfo.getStartY() + cellInfo.height / 2.0f;
-        RectF rectF = new RectF(cx - radius, cy - radius, cx + radius, cy + radius);
+        arcRectF.set(cx - radius, cy - radius, cx + radius, cy + radius);
         startPath.reset();
         startPath.moveTo(cx, cy - radius);
-        startPath.arcTo(rectF, -90.0f, -180.0f);
+        startPath.arcTo(arcRectF, -90.0f, -180.0f);
         startPath.lineTo(cellInfo.getStartX() + cellInfo.width, cy + radius);
         startPath.lineTo(cellInfo.getStartX() + cellInfo.width, cy - radius);
         startPath.close();
@@ -73,10 +75,10 @@ public class RangeDecoration implements EasyDecoration {
         CellInfo cellInfo = cellInfos.get(end - 1);
         float cx = cellInfo.getStartX() + cellInfo.width / 2.0f;
         float cy = cellInfo.getStartY() + cellInfo.height / 2.0f;
-        RectF rectF = new RectF(cx - radius, cy - radius, cx + radius, cy + radius);
+        arcRectF.set(cx - radius, cy - radius, cx + radius, cy + radius);
         endPath.reset();
         endPath.moveTo(cx, cy - radius);
-        endPath.arcTo(rectF, -90.0f, 180.0f);
+        endPath.arcTo(arcRectF, -90.0f, 180.0f);
         endPath.lineTo(cellInfo.getStartX(), cy + radius);
         endPath.lineTo(cellInfo.getStartX(), cy - radius);
         endPath.close();
@@ -1,5 +1,7 @@
 package com.hzn.library.table;
 
+import java.util.Arrays;
+
 /**
  * Information of a table cell.
  * <br/>
@@ -85,10 +87,49 @@ public class CellInfo {
      * Texts, multiple lines.
      */
     public String[] texts = null;
+    /**
+     * Style of texts, this will override {@link #textColor}, {@link #textColors},
+     * {@link #textSize} and {@link #textSizes}, cells with equal styles share one style,
+     * color and size not set by the style are the defaults of the table.
+     */
+    public CellStyle style = null;
+    /**
+     * Id of the style in table, resolved while data is set to table, -1 if not resolved,
+     * reset by {@link EasyTableView#reset()} so that attributes changed in place are resolved again.
+     */
+    int styleId = -1;
+    /**
+     * Measured width of each text line, cleared while data is set to table or the table is reset.
+     */
+    float[] textWidths = null;
     /**
      * The table in which the cell is located.
      */
     public EasyTableView parent = null;
+    /**
+     * Whether the cell is created by the table, such as an empty cell or
+     * a cell bound from the adapter, only such cells are recycled.
+     */
+    boolean recyclable = false;
+    /**
+     * Whether the cell is a read-only view shared by cells, such as packed cells or
+     * empty ones of a sparse table, nothing such as {@link #textWidths} should be cached into it.
+     */
+    boolean readOnly = false;
+    /**
+     * Arrays kept while the cell is recycled, reused by
+     * {@link #obtainTexts(int)}, {@link #obtainTextColors(int)} and {@link #obtainTextSizes(int)}.
+     */
+    String[] spareTexts = null;
+    int[] spareTextColors = null;
+    int[] spareTextSizes = null;
+    /**
+     * Arrays allocated by the table through obtainTexts, obtainTextColors and obtainTextSizes,
+     * only they are kept as spare ones while the cell is recycled, arrays of users are just dropped.
+     */
+    private String[] obtainedTexts = null;
+    private int[] obtainedTextColors = null;
+    private int[] obtainedTextSizes = null;
 
     public CellInfo() {
     }
@@ -120,6 +161,92 @@ public class CellInfo {
         this.texts = texts;
     }
 
+    /**
+     * Get an array for {@link #texts}, the array of a recycled cell is reused
+     * if its size fits, useful while binding cells in {@link TableAdapter}.
+     */
+    public String[] obtainTexts(int size) {
+        if (null != spareTexts && spareTexts.length == size) {
+            obtainedTexts = spareTexts;
+            spareTexts = null;
+        } else {
+            obtainedTexts = new String[size];
+        }
+        return obtainedTexts;
+    }
+
+    /**
+     * Get an array for {@link #textColors}, the array of a recycled cell is reused
+     * if its size fits, useful while binding cells in {@link TableAdapter}.
+     */
+    public int[] obtainTextColors(int size) {
+        if (null != spareTextColors && spareTextColors.length == size) {
+            obtainedTextColors = spareTextColors;
+            spareTextColors = null;
+        } else {
+            obtainedTextColors = new int[size];
+        }
+        return obtainedTextColors;
+    }
+
+    /**
+     * Get an array for {@link #textSizes}, the array of a recycled cell is reused
+     * if its size fits, useful while binding cells in {@link TableAdapter}.
+     */
+    public int[] obtainTextSizes(int size) {
+        if (null != spareTextSizes && spareTextSizes.length == size) {
+            obtainedTextSizes = spareTextSizes;
+            spareTextSizes = null;
+        } else {
+            obtainedTextSizes = new int[size];
+        }
+        return obtainedTextSizes;
+    }
+
+    /**
+     * Whether nothing of the cell is drawn or handed out, size of the cell is not considered,
+     * which is kept by the table after layout.
+     */
+    boolean isEmpty() {
+        return type == TYPE_NORMAL && null == tag && bgColor == 0 && null == texts;
+    }
+
+    /**
+     * Reset to default values for reusing, arrays obtained from the cell are kept as
+     * spare ones, arrays set by users are not touched, they may be held by users.
+     */
+    void recycle() {
+        if (null != texts && texts == obtainedTexts) {
+            Arrays.fill(texts, null);
+            spareTexts = texts;
+        }
+        if (null != textColors && textColors == obtainedTextColors)
+            spareTextColors = textColors;
+        if (null != textSizes && textSizes == obtainedTextSizes)
+            spareTextSizes = textSizes;
+        obtainedTexts = null;
+        obtainedTextColors = null;
+        obtainedTextSizes = null;
+
+        type = TYPE_NORMAL;
+        tag = null;
+        row = -1;
+        line = -1;
+        startX = 0.0f;
+        startY = 0.0f;
+        width = -1.0f;
+        height = -1.0f;
+        bgColor = 0;
+        textColor = 0;
+        textColors = null;
+        textSize = -1;
+        textSizes = null;
+        texts = null;
+        style = null;
+        styleId = -1;
+        parent = null;
+    }
+
     public float getStartX() {
         return startX;
     }
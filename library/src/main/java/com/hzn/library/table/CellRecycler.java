@@ -0,0 +1,78 @@
+package com.hzn.library.table;
+
+/**
+ * Pool of cells created by the table, cells leaving the visible range or
+ * removed from the table are recycled, and reused with their arrays instead
+ * of creating new ones.
+ * <br/>
+ * Created by huzn on 2017/10/20.
+ */
+class CellRecycler {
+
+    static final int DEFAULT_MAX_SIZE = 512;
+
+    private CellInfo[] pool;
+    private int size;
+    private int maxSize;
+    private int hitCount;
+    private int missCount;
+
+    CellRecycler(int maxSize) {
+        this.maxSize = Math.max(maxSize, 0);
+        this.pool = new CellInfo[this.maxSize];
+    }
+
+    /**
+     * get a cell with default values from the pool, create a new one while it is empty
+     */
+    CellInfo obtain() {
+        CellInfo cellInfo;
+        if (size > 0) {
+            ++hitCount;
+            cellInfo = pool[--size];
+            pool[size] = null;
+        } else {
+            ++missCount;
+            cellInfo = new CellInfo();
+            cellInfo.recyclable = true;
+        }
+        return cellInfo;
+    }
+
+    /**
+     * put the cell back to the pool, cells not created by the table are ignored
+     */
+    void recycle(CellInfo cellInfo) {
+        if (null == cellInfo || !cellInfo.recyclable || size >= maxSize)
+            return;
+        cellInfo.recycle();
+        pool[size++] = cellInfo;
+    }
+
+    void setMaxSize(int maxSize) {
+        maxSize = Math.max(maxSize, 0);
+        CellInfo[] newPool = new CellInfo[maxSize];
+        size = Math.min(size, maxSize);
+        System.arraycopy(pool, 0, newPool, 0, size);
+        this.pool = newPool;
+        this.maxSize = maxSize;
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    int getMissCount() {
+        return missCount;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++)
+            pool[i] = null;
+        size = 0;
+    }
+}
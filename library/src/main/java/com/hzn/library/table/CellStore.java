@@ -0,0 +1,217 @@
+package com.hzn.library.table;
+
+import java.lang.reflect.Array;
+
+/**
+ * Storage of cells of the table by row and line, all cells are empty ones
+ * after the store is reset, see {@link EasyTableView#setStoreMode(int)}.
+ * <br/>
+ * Created by huzn on 2017/10/21.
+ */
+abstract class CellStore {
+
+    int rows;
+    int lines;
+    // row in storage of each row position, null while rows are not reordered,
+    // such as by sorting, rows are moved in storage only before rows are inserted or removed,
+    // the array is replaced rather than changed, so that snapshots can keep it
+    int[] rowOrder;
+    // row positions shown, null while rows are not filtered, displayed rows are
+    // the shown positions, rows is the count of all rows, set by setRowFilter
+    RowBitSet rowFilter;
+    // the last displayed row selected by the filter and its position, cells of a row
+    // are read one after another while drawing, so the row is selected only once
+    private int selectedRow = -1;
+    private int selectedPosition;
+
+    // row in storage of the displayed row
+    final int storageRow(int row) {
+        if (null != rowFilter) {
+            if (row != selectedRow) {
+                selectedPosition = rowFilter.select(row);
+                selectedRow = row;
+            }
+            row = selectedPosition;
+        }
+        return null == rowOrder ? row : rowOrder[row];
+    }
+
+    // show only the row positions of the filter, or all rows while it is null
+    final void setRowFilter(RowBitSet filter) {
+        rowFilter = filter;
+        selectedRow = -1;
+    }
+
+    // clear order and filter of rows, called while the store is reset
+    final void clearRowOrder() {
+        rowOrder = null;
+        setRowFilter(null);
+    }
+
+    /**
+     * reorder the displayed rows without moving cells, composed with the current order,
+     * rows should not be filtered
+     *
+     * @param order displayed row of each new displayed row
+     */
+    final void reorderRows(int[] order) {
+        if (null != rowOrder)
+            for (int r = 0; r < rows; r++)
+                order[r] = rowOrder[order[r]];
+        rowOrder = order;
+    }
+
+    /**
+     * move rows in storage by the row order, so that displayed rows are the same as rows
+     * in storage, called before rows are inserted or removed, rows should not be filtered
+     */
+    final void applyRowOrder() {
+        if (null == rowOrder)
+            return;
+        permuteRows(rowOrder);
+        rowOrder = null;
+    }
+
+    /**
+     * move rows in storage, the new row r is the original row order[r]
+     */
+    abstract void permuteRows(int[] order);
+
+    /**
+     * clear all cells, with the new size of table
+     */
+    abstract void reset(int rows, int lines);
+
+    /**
+     * take the texts of cells for sorting or filtering, the snapshot is read on the sort
+     * executor, so only arrays changed in place are copied, which is O(rows+lines) for
+     * most stores, and no empty cell is obtained. Cells may still be changed in place while
+     * the snapshot is read, so its result must be dropped if cells are changed before it
+     * is applied
+     */
+    abstract TextSnapshot snapshotTexts();
+
+    /**
+     * get the cell for reading and drawing, a read-only view may be returned,
+     * which is valid only until the next call
+     */
+    abstract CellInfo get(int row, int line);
+
+    /**
+     * get the cell handed out to users, such as the clicked cell,
+     * a copy is returned if cells are not kept as instances
+     */
+    abstract CellInfo export(int row, int line);
+
+    /**
+     * store the cell, attributes of texts should be filled
+     */
+    abstract void set(int row, int line, CellInfo cellInfo);
+
+    /**
+     * forget styles and text widths resolved for cells, so that texts, colors
+     * and sizes changed in place are resolved again while drawn
+     */
+    abstract void clearTextCaches();
+
+    /**
+     * mark ids of styles referenced by cells
+     */
+    abstract void markStyles(boolean[] used);
+
+    /**
+     * change ids of styles referenced by cells after styles are compacted
+     *
+     * @param newIds new id of each original id
+     */
+    abstract void remapStyles(int[] newIds);
+
+    /**
+     * whether cells are kept as the instances set, so that coordinate
+     * of cells is written into them while laid out
+     */
+    abstract boolean keepsInstances();
+
+    /**
+     * insert empty rows before the row, rows should be ordered by {@link #applyRowOrder()}
+     */
+    abstract void insertRows(int row, int count);
+
+    /**
+     * remove rows from start to end, rows should be ordered by {@link #applyRowOrder()}
+     */
+    abstract void removeRows(int start, int end);
+
+    /**
+     * insert empty lines before the line
+     */
+    abstract void insertLines(int line, int count);
+
+    /**
+     * remove lines from start to end
+     */
+    abstract void removeLines(int start, int end);
+
+    /**
+     * move count lines starting at from, so that they start at to after moving
+     */
+    abstract void moveLines(int from, int to, int count);
+
+    /**
+     * index of an element after moving count elements starting at from to start at to
+     */
+    static int movedIndex(int index, int from, int to, int count) {
+        if (index >= from && index < from + count)
+            return index - from + to;
+        if (to > from && index >= from + count && index < to + count)
+            return index - count;
+        if (to < from && index >= to && index < from)
+            return index + count;
+        return index;
+    }
+
+    /**
+     * move count elements of the array starting at from, so that they start at to,
+     * the elements between them are shifted
+     */
+    static void moveRange(Object array, int from, int to, int count) {
+        if (from == to || count <= 0)
+            return;
+        Object moved = Array.newInstance(array.getClass().getComponentType(), count);
+        System.arraycopy(array, from, moved, 0, count);
+        if (to > from)
+            System.arraycopy(array, from + count, array, from, to - from);
+        else
+            System.arraycopy(array, to, array, to + count, from - to);
+        System.arraycopy(moved, 0, array, to, count);
+    }
+
+    /**
+     * texts of cells by row position, including rows hidden by the filter
+     */
+    abstract static class TextSnapshot {
+
+        // row in storage of each row position, null while rows are not reordered
+        private final int[] rowOrder;
+
+        TextSnapshot(int[] rowOrder) {
+            this.rowOrder = rowOrder;
+        }
+
+        final int storageRow(int position) {
+            return null == rowOrder ? position : rowOrder[position];
+        }
+
+        /**
+         * @return the first text of the cell, or null if the cell has no texts
+         */
+        abstract String firstText(int position, int line);
+
+        static String firstText(CellInfo cellInfo) {
+            if (null == cellInfo)
+                return null;
+            String[] texts = cellInfo.texts;
+            return null == texts || texts.length <= 0 ? null : texts[0];
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.hzn.library.table;
+
+import android.graphics.Typeface;
+
+import java.util.Arrays;
+
+/**
+ * Immutable style of texts in cells, including colors, sizes, typeface and
+ * alignment. Styles are interned by the table, equal styles are shared by
+ * cells and referenced by id, so that setting data allocates nothing for
+ * styles which already exist, see {@link CellInfo#style}.
+ * <br/>
+ * Created by huzn on 2017/10/22.
+ */
+public final class CellStyle {
+
+    /**
+     * Texts are centered in the cell.
+     */
+    public static final int ALIGN_CENTER = 0;
+    /**
+     * Texts are aligned to the left edge of the cell.
+     */
+    public static final int ALIGN_LEFT = 1;
+    /**
+     * Texts are aligned to the right edge of the cell.
+     */
+    public static final int ALIGN_RIGHT = 2;
+
+    private final int textColor;
+    private final int[] textColors;
+    private final int textSize;
+    private final int[] textSizes;
+    private final Typeface typeface;
+    private final int align;
+    private final int hash;
+
+    public CellStyle(int textColor, int textSize) {
+        this(textColor, null, textSize, null, null, ALIGN_CENTER);
+    }
+
+    public CellStyle(int textColor, int textSize, Typeface typeface, int align) {
+        this(textColor, null, textSize, null, typeface, align);
+    }
+
+    /**
+     * @param textColors color of each text line, the last one is used by the following lines,
+     *                   black is used while it is null or empty
+     * @param textSizes  size of each text line, the last one is used by the following lines,
+     *                   the default size of the table is used while it is null or empty
+     */
+    public CellStyle(int[] textColors, int[] textSizes, Typeface typeface, int align) {
+        this(0, textColors, -1, textSizes, typeface, align);
+    }
+
+    CellStyle(int textColor, int[] textColors, int textSize, int[] textSizes, Typeface typeface, int align) {
+        this.textColor = textColor;
+        this.textColors = null == textColors || textColors.length == 0 ? null : textColors.clone();
+        this.textSize = textSize;
+        this.textSizes = null == textSizes || textSizes.length == 0 ? null : textSizes.clone();
+        this.typeface = typeface;
+        this.align = align;
+        this.hash = hash(this.textColor, this.textColors, this.textSize, this.textSizes, typeface, align);
+    }
+
+    static int hash(int textColor, int[] textColors, int textSize, int[] textSizes, Typeface typeface, int align) {
+        int h = textColor;
+        h = 31 * h + Arrays.hashCode(textColors);
+        h = 31 * h + textSize;
+        h = 31 * h + Arrays.hashCode(textSizes);
+        h = 31 * h + (null == typeface ? 0 : System.identityHashCode(typeface));
+        h = 31 * h + align;
+        return h;
+    }
+
+    /**
+     * @return color of the text line
+     */
+    public int getTextColor(int index) {
+        if (null == textColors)
+            return textColor;
+        return textColors[Math.min(index, textColors.length - 1)];
+    }
+
+    /**
+     * @return size of the text line(px)
+     */
+    public int getTextSize(int index) {
+        if (null == textSizes)
+            return textSize;
+        return textSizes[Math.min(index, textSizes.length - 1)];
+    }
+
+    /**
+     * @return typeface of texts, null for the default typeface of the table
+     */
+    public Typeface getTypeface() {
+        return typeface;
+    }
+
+    public int getAlign() {
+        return align;
+    }
+
+    // whether the style is made up of text colors and sizes only,
+    // so that it can be written back into fields of a cell
+    boolean isPlain() {
+        return null == typeface && align == ALIGN_CENTER;
+    }
+
+    boolean equals(int textColor, int[] textColors, int textSize, int[] textSizes, Typeface typeface, int align) {
+        return this.textColor == textColor && this.textSize == textSize &&
+                this.typeface == typeface && this.align == align &&
+                Arrays.equals(this.textColors, textColors) && Arrays.equals(this.textSizes, textSizes);
+    }
+
+    int[] getTextColors() {
+        return textColors;
+    }
+
+    int getTextColor() {
+        return textColor;
+    }
+
+    int[] getTextSizes() {
+        return textSizes;
+    }
+
+    int getTextSize() {
+        return textSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof CellStyle))
+            return false;
+        CellStyle style = (CellStyle) o;
+        return hash == style.hash && style.equals(textColor, textColors, textSize, textSizes, typeface, align);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -6,20 +6,31 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.support.v4.view.ViewCompat;
 import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.widget.OverScroller;
 
 import com.hzn.library.R;
 import com.hzn.library.decoration.EasyDecoration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Table View, with Horizontal and Vertical HEADER, each cell supports multiline text,
@@ -54,6 +65,16 @@ public class EasyTableView extends View {
     // table mode，having MODE_NORMAL, MODE_FIX_WIDTH, MODE_FIX_HEIGHT
     // and MODE_FIX_WIDTH_HEIGHT, default MODE_NORMAL
     private int mode;
+    // store mode, having STORE_MODE_OBJECT, STORE_MODE_PACKED
+    // and STORE_MODE_SPARSE, default STORE_MODE_OBJECT
+    private int storeMode = STORE_MODE_OBJECT;
+    // render mode, having RENDER_MODE_DIRECT, RENDER_MODE_PICTURE
+    // and RENDER_MODE_TILE, default RENDER_MODE_DIRECT
+    private int renderMode = RENDER_MODE_DIRECT;
+    // whether the table scrolls inside the view, default false
+    private boolean scrollable;
+    // whether the header row and line are pinned while scrolling, default false
+    private boolean headersFrozen;
 
     /**
      * normal mode, WIDTH and HEIGHT of table are both auto fit
@@ -72,6 +93,39 @@ public class EasyTableView extends View {
      */
     public static final int MODE_FIX_WIDTH_HEIGHT = 3;
 
+    /**
+     * draw the table directly on every frame
+     */
+    public static final int RENDER_MODE_DIRECT = 0;
+    /**
+     * record the table into pictures while data is changed, and replay them
+     * on every frame, only decorations are drawn directly, suitable for tables
+     * that change rarely but are redrawn often
+     */
+    public static final int RENDER_MODE_PICTURE = 1;
+    /**
+     * render texts, strokes and merged cells into bitmap tiles, visible tiles
+     * are drawn from a LRU cache, only tiles whose cells are updated are rendered
+     * again, suitable for tables which are many screens large
+     */
+    public static final int RENDER_MODE_TILE = 2;
+
+    /**
+     * keep each cell as a CellInfo instance
+     */
+    public static final int STORE_MODE_OBJECT = 0;
+    /**
+     * keep attributes of cells in parallel primitive arrays, cells are handed out
+     * as copies, such as in {@link OnCellClickListener}, so they should be changed
+     * by {@link #updateData(CellInfo...)}, suitable for large tables
+     */
+    public static final int STORE_MODE_PACKED = 1;
+    /**
+     * keep only the cells set by data, empty cells share one read-only instance
+     * and are handed out as copies, suitable for mostly empty tables
+     */
+    public static final int STORE_MODE_SPARSE = 2;
+
     /**
      * add some rows above a row
      */
@@ -100,29 +154,145 @@ public class EasyTableView extends View {
     private Paint paint;
     private Paint strokePaint;
     private TextPaint textPaint;
+    // font metrics of each text size, used by measuring and drawing texts
+    private FontMetricsCache fontMetricsCache;
+    // measured widths of texts, used by measuring and drawing texts
+    private TextWidthCache textWidthCache;
     private RectF bgRectF;
     private Path tPath;
+    // cached paths, rebuilt only while layout is changed
+    private Path headerVHPath;
+    private Path headerHPath;
+    private Path headerVPath;
+    private Path outStrokePath;
     private RectF tRectF;
     private RectF tCornerRectF;
+    private Rect tClipRect;
+
+    // visible range of rows and lines, calculated by the clip bounds of
+    // canvas while drawing, cells out of this range will not be drawn
+    private int visibleStartRow;
+    private int visibleEndRow;
+    private int visibleStartLine;
+    private int visibleEndLine;
+
+    // whether coordinates of cells and merged cells are valid,
+    // if not, they will be recalculated before drawing
+    private boolean layoutValid;
+    // whether every cell is laid out again, otherwise only cells of rows and lines
+    // which are shifted or resized, from start(inclusive) to end(exclusive)
+    private boolean layoutAll = true;
+    private int layoutStartRow = Integer.MAX_VALUE;
+    private int layoutEndRow;
+    private int layoutStartLine = Integer.MAX_VALUE;
+    private int layoutEndLine;
+    // cells updated while layout is invalid, laid out besides the invalid rows and lines
+    private ArrayList<CellInfo> pendingLayoutCells = new ArrayList<>();
+
+    // recorded pictures in RENDER_MODE_PICTURE, the base picture is drawn below
+    // the bottom decoration, and the content picture is drawn above it
+    private Picture basePicture;
+    private Picture contentPicture;
+    private boolean pictureValid;
+
+    // bitmap tiles in RENDER_MODE_TILE, holding the same layer as the content picture
+    private TileCache tileCache;
+    private int tileSize = TileCache.DEFAULT_TILE_SIZE;
+    private long tileCacheBytes = TileCache.DEFAULT_MAX_BYTES;
+    private final TileCache.TileRenderer tileRenderer = new TileCache.TileRenderer() {
+        @Override
+        public void renderTile(Canvas canvas) {
+            initVisibleRange(canvas);
+            drawContent(canvas);
+        }
+    };
+
+    // cached layer of the frozen header row and line, re-recorded only while header cells are changed
+    private PictureStrip headerRowStrip;
+    private PictureStrip headerLineStrip;
+    private final PictureStrip.ChunkRenderer headerRenderer = new PictureStrip.ChunkRenderer() {
+        @Override
+        public void renderChunk(Canvas canvas) {
+            initVisibleRange(canvas);
+            drawBase(canvas);
+            drawContent(canvas);
+        }
+    };
 
     // data list of merged cells
     private ArrayList<MergeInfo> mergeInfoList;
-    // width list of cells
+    // index of merged cells, mapping each covered cell to the merged cell
+    private LongHashMap<MergeInfo> mergeIndex;
+    // width list of cells, the capacity can be greater than lines,
+    // so that inserting lines does not allocate every time
     private float[] widthArr;
-    // height list of cells
+    // height list of cells, the capacity can be greater than rows,
+    // so that inserting rows does not allocate every time
     private float[] heightArr;
-    // data list of cells
-    private CellInfo[][] cellArr;
+    // starting y-coordinate of each row, the last one is the ending
+    // y-coordinate of the last row, size of rows+1
+    private float[] rowOffsets;
+    // starting x-coordinate of each line, the last one is the ending
+    // x-coordinate of the last line, size of lines+1
+    private float[] lineOffsets;
+    // segments of inner strokes, horizontal ones of each row first, then vertical
+    // ones of each line, 4 floats for each segment, drawn by Canvas.drawLines
+    private float[] strokeLines;
+    // index of the first horizontal stroke segment at or below each row,
+    // size of rows+1, the last one is the number of horizontal segments
+    private int[] rowStrokeIndex;
+    // index of the first vertical stroke segment at or right of each line,
+    // size of lines+1, the last one is the number of all segments
+    private int[] lineStrokeIndex;
+    // store of cells, empty while the adapter is set
+    private CellStore cellStore;
+    // data source binding cells on demand, instead of cellStore
+    private TableAdapter adapter;
+    // cells bound from the adapter, by cellKey, and the list of them for trimming
+    private LongHashMap<CellInfo> boundCells;
+    private ArrayList<CellInfo> boundCellList;
+    // lines and rows without size hints of the adapter, measured by bound cells
+    private RowBitSet measuredLines;
+    private RowBitSet measuredRows;
+    // pool of cells created by the table, reused instead of creating new ones
+    private CellRecycler cellRecycler;
+    // executor sorting and filtering rows, the shared one by default
+    private Executor sortExecutor;
+    // increased while a sort or filter starts, or rows, lines or cells are changed, so that stale results are dropped
+    private int rowsGeneration;
+    // heights of all rows while rows are filtered, heightArr keeps heights of shown rows
+    private float[] unfilteredHeightArr;
+    // interned styles of texts, referenced by styleId of cells
+    private StylePool stylePool;
+    // styles are compacted while more than this are interned, doubled by the used ones after compacting
+    private int styleTrimSize = MIN_STYLE_TRIM_SIZE;
+    private static final int MIN_STYLE_TRIM_SIZE = 256;
+    // size of texts while neither textSize nor textSizes is set, 14sp
+    private int defaultTextSize;
     // bottom decoration, drawing above cells background, and below cells texts
     private EasyDecoration bottomDecoration;
     // top decoration, drawing above everything
     private EasyDecoration topDecoration;
 
+    // the cell touched down, a bound one is not released until the gesture ends
     private Object curTouchCell;
     private float downX;
     private float downY;
     private int touchSlop;
 
+    // size of the table including padding, larger than the view while scrollable
+    private int tableWidth;
+    private int tableHeight;
+    private OverScroller scroller;
+    private VelocityTracker velocityTracker;
+    private int minFlingVelocity;
+    private int maxFlingVelocity;
+    private float scrollDownX;
+    private float scrollDownY;
+    private float lastScrollX;
+    private float lastScrollY;
+    private boolean isDragging;
+
     private CheckForLongPress checkForLongPress;
     private boolean hasPerformedLongPress;
 
@@ -152,6 +322,8 @@ public class EasyTableView extends View {
         outStrokeCorner = a.getDimensionPixelSize(R.styleable.EasyTableView_etvOutStrokeCorner, (int) TypedValue.applyDimension(
                 TypedValue.COMPLEX_UNIT_DIP, 5, getResources().getDisplayMetrics()));
         mode = a.getInteger(R.styleable.EasyTableView_etvMode, MODE_NORMAL);
+        scrollable = a.getBoolean(R.styleable.EasyTableView_etvScrollable, false);
+        headersFrozen = a.getBoolean(R.styleable.EasyTableView_etvHeadersFrozen, false);
         a.recycle();
 
         paint = new Paint();
@@ -162,67 +334,243 @@ public class EasyTableView extends View {
         strokePaint.setStyle(Paint.Style.STROKE);
         textPaint = new TextPaint();
         textPaint.setAntiAlias(true);
+        fontMetricsCache = new FontMetricsCache(textPaint);
+        textWidthCache = new TextWidthCache(textPaint, TextWidthCache.DEFAULT_MAX_SIZE);
+        cellRecycler = new CellRecycler(CellRecycler.DEFAULT_MAX_SIZE);
+        stylePool = new StylePool();
+        defaultTextSize = spToPx(14);
+        cellStore = new ObjectCellStore(cellRecycler);
 
         bgRectF = new RectF();
         tPath = new Path();
+        headerVHPath = new Path();
+        headerHPath = new Path();
+        headerVPath = new Path();
+        outStrokePath = new Path();
         tRectF = new RectF();
         tCornerRectF = new RectF();
+        tClipRect = new Rect();
 
         ViewConfiguration viewConfiguration = ViewConfiguration.get(getContext());
         touchSlop = viewConfiguration.getScaledTouchSlop();
+        minFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
+        maxFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+        scroller = new OverScroller(context);
+        headerRowStrip = new PictureStrip(headerRenderer, true, PictureStrip.DEFAULT_CHUNK_SIZE);
+        headerLineStrip = new PictureStrip(headerRenderer, false, PictureStrip.DEFAULT_CHUNK_SIZE);
 
         resetTableData();
     }
 
     // reset data list of the table
     private void resetTableData() {
+        invalidateLayout();
+        ++rowsGeneration;
+        unfilteredHeightArr = null;
+        measuredLines = null;
+        measuredRows = null;
+        if (null != boundCellList)
+            clearBoundCells();
+        // styles and metrics of text sizes no longer used are released with the original data
+        stylePool.clear();
+        styleTrimSize = MIN_STYLE_TRIM_SIZE;
+        fontMetricsCache.clear();
+
         mergeInfoList = new ArrayList<>();
+        mergeIndex = new LongHashMap<>();
         widthArr = new float[lines];
         heightArr = new float[rows];
+        boundCells = new LongHashMap<>();
+        boundCellList = new ArrayList<>();
 
-        // init cells
-        if (rows != 0 && lines != 0) {
-            cellArr = new CellInfo[rows][lines];
-            for (int r = 0; r < rows; r++)
-                for (int l = 0; l < lines; l++)
-                    cellArr[r][l] = new CellInfo();
-        }
+        // init cells, they are bound on demand while the adapter is set
+        if (null == adapter)
+            cellStore.reset(rows, lines);
+        else
+            cellStore.reset(0, 0);
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // sum of each line's width
+        int contentWidth = 0;
+        for (int l = 0; l < lines; l++)
+            contentWidth = (int) (contentWidth + widthArr[l]);
+        contentWidth = contentWidth + outStrokeSize + getPaddingLeft() + getPaddingRight();
+
         int measureMode = MeasureSpec.getMode(widthMeasureSpec);
         int width = MeasureSpec.getSize(widthMeasureSpec);
-        if (measureMode != MeasureSpec.EXACTLY) { // wrap_content
-            // sum of each line's width
-            width = 0;
-            for (int l = 0; l < lines; l++)
-                width = (int) (width + widthArr[l]);
-            width = width + outStrokeSize + getPaddingLeft() + getPaddingRight();
-        }
+        if (scrollable && measureMode == MeasureSpec.AT_MOST) // wrap_content, scroll inside the available size
+            width = Math.min(width, contentWidth);
+        else if (measureMode != MeasureSpec.EXACTLY) // wrap_content
+            width = contentWidth;
+
+        // sum of each row's height
+        int contentHeight = 0;
+        for (int r = 0; r < rows; r++)
+            contentHeight = (int) (contentHeight + heightArr[r]);
+        contentHeight = contentHeight + outStrokeSize + getPaddingTop() + getPaddingBottom();
 
         measureMode = MeasureSpec.getMode(heightMeasureSpec);
         int height = MeasureSpec.getSize(heightMeasureSpec);
-        if (measureMode != MeasureSpec.EXACTLY) { // wrap_content
-            // sum of each line's height
-            height = 0;
-            for (int r = 0; r < rows; r++)
-                height = (int) (height + heightArr[r]);
-            height = height + outStrokeSize + getPaddingTop() + getPaddingBottom();
+        if (scrollable && measureMode == MeasureSpec.AT_MOST) // wrap_content, scroll inside the available size
+            height = Math.min(height, contentHeight);
+        else if (measureMode != MeasureSpec.EXACTLY) // wrap_content
+            height = contentHeight;
+
+        // the table is as large as its content while scrollable, except
+        // the fixed width or height, which is averaged in the view
+        tableWidth = width;
+        tableHeight = height;
+        if (scrollable && mode != MODE_FIX_WIDTH && mode != MODE_FIX_WIDTH_HEIGHT)
+            tableWidth = Math.max(width, contentWidth);
+        if (scrollable && mode != MODE_FIX_HEIGHT && mode != MODE_FIX_WIDTH_HEIGHT)
+            tableHeight = Math.max(height, contentHeight);
+
+        float left = 0.0f + getPaddingLeft() + outStrokeSize / 2.0f;
+        float top = 0.0f + getPaddingTop() + outStrokeSize / 2.0f;
+        float right = tableWidth - getPaddingRight() - outStrokeSize / 2.0f;
+        float bottom = tableHeight - getPaddingBottom() - outStrokeSize / 2.0f;
+        if (bgRectF.left != left || bgRectF.top != top || bgRectF.right != right || bgRectF.bottom != bottom) {
+            bgRectF.left = left;
+            bgRectF.top = top;
+            bgRectF.right = right;
+            bgRectF.bottom = bottom;
+            invalidateLayout();
         }
 
-        bgRectF.left = 0.0f + getPaddingLeft() + outStrokeSize / 2.0f;
-        bgRectF.top = 0.0f + getPaddingTop() + outStrokeSize / 2.0f;
-        bgRectF.right = width - getPaddingRight() - outStrokeSize / 2.0f;
-        bgRectF.bottom = height - getPaddingBottom() - outStrokeSize / 2.0f;
-
         setMeasuredDimension(width, height);
     }
 
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        // keep the scroll position inside the table while size is changed
+        scrollTo(getScrollX(), getScrollY());
+    }
+
+    // nothing should be allocated while drawing in steady state,
+    // see DrawAllocationTest
     @Override
     protected void onDraw(Canvas canvas) {
-        // init data such as coordinate
-        initData();
+        // init data such as coordinate, only while layout is changed
+        if (!layoutValid)
+            initData();
+
+        if (renderMode == RENDER_MODE_PICTURE && !scrollable && canDrawPicture(canvas)) {
+            // record pictures while data is changed
+            if (!pictureValid)
+                recordPictures();
+            canvas.drawPicture(basePicture);
+            drawBottomDecorations(canvas);
+            canvas.drawPicture(contentPicture);
+            drawTopDecorations(canvas);
+            return;
+        }
+
+        // init visible range of rows and lines
+        initVisibleRange(canvas);
+        // draw background, headers and cells background
+        drawBase(canvas);
+        // draw bottom decorations
+        drawBottomDecorations(canvas);
+        // draw texts, strokes, merged cells and outer stroke
+        if (renderMode == RENDER_MODE_TILE)
+            drawContentTiles(canvas);
+        else
+            drawContent(canvas);
+        // draw the header row and line pinned to the top and left edges
+        if (scrollable && headersFrozen)
+            drawFrozenHeaders(canvas);
+        // draw top decorations, above everything
+        drawTopDecorations(canvas);
+        // release cells bound from the adapter which are far from the visible cells
+        if (null != adapter)
+            trimBoundCells();
+    }
+
+    // draw the header row and line above the scrolled cells, from the cached header layer
+    private void drawFrozenHeaders(Canvas canvas) {
+        int scrollX = getScrollX();
+        int scrollY = getScrollY();
+        if (rows <= 0 || lines <= 0 || (scrollX == 0 && scrollY == 0))
+            return;
+
+        // including the stroke below and right of the headers
+        int headerBottom = (int) Math.ceil(rowOffsets[1] + strokeSize / 2.0f);
+        int headerRight = (int) Math.ceil(lineOffsets[1] + strokeSize / 2.0f);
+        int width = getWidth();
+        int height = getHeight();
+
+        // header row, pinned to the top edge
+        if (scrollY > 0) {
+            canvas.save();
+            canvas.translate(0, scrollY);
+            canvas.clipRect(scrollX, 0, scrollX + width, headerBottom);
+            drawHeaderStrip(canvas, headerRowStrip, scrollX, scrollX + width, headerBottom);
+            canvas.restore();
+        }
+
+        // header line, pinned to the left edge
+        if (scrollX > 0) {
+            canvas.save();
+            canvas.translate(scrollX, 0);
+            canvas.clipRect(0, scrollY, headerRight, scrollY + height);
+            drawHeaderStrip(canvas, headerLineStrip, scrollY, scrollY + height, headerRight);
+            canvas.restore();
+        }
+
+        // the first header cell, pinned to the top left corner
+        if (scrollX > 0 && scrollY > 0) {
+            canvas.save();
+            canvas.translate(scrollX, scrollY);
+            canvas.clipRect(0, 0, headerRight, headerBottom);
+            drawHeaderStrip(canvas, headerLineStrip, 0, headerBottom, headerRight);
+            canvas.restore();
+        }
+
+        // visible range is changed by drawing headers
+        initVisibleRange(canvas);
+    }
+
+    private void drawHeaderStrip(Canvas canvas, PictureStrip strip, int start, int end, int thickness) {
+        if (canDrawPicture(canvas))
+            strip.draw(canvas, start, end, thickness);
+        else
+            headerRenderer.renderChunk(canvas);
+    }
+
+    // draw the content layer from bitmap tiles
+    private void drawContentTiles(Canvas canvas) {
+        if (tClipRect.isEmpty())
+            return;
+        if (null == tileCache)
+            tileCache = new TileCache(tileRenderer, tileSize, tileCacheBytes);
+        // clip bounds will be changed while rendering tiles
+        int left = tClipRect.left;
+        int top = tClipRect.top;
+        int right = tClipRect.right;
+        int bottom = tClipRect.bottom;
+        tileCache.draw(canvas, left, top, right, bottom, tableWidth, tableHeight);
+        // visible range is changed by rendering tiles
+        initVisibleRange(canvas);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // release bitmaps of tiles
+        if (null != tileCache)
+            tileCache.clear();
+        // release pictures of headers
+        headerRowStrip.clear();
+        headerLineStrip.clear();
+        // release pooled cells, they are created again while needed
+        cellRecycler.clear();
+    }
+
+    // draw the layer below the bottom decorations
+    private void drawBase(Canvas canvas) {
         // draw background
         drawBg(canvas);
         // draw VH header
@@ -233,8 +581,10 @@ public class EasyTableView extends View {
         drawHeaderV(canvas);
         // draw cells background
         drawCellsInfoBg(canvas);
-        // draw bottom decorations
-        drawBottomDecorations(canvas);
+    }
+
+    // draw the layer between the bottom and top decorations
+    private void drawContent(Canvas canvas) {
         // draw cells info(texts for now)
         drawCellsInfo(canvas);
         // draw strokes while strokeSize>0
@@ -243,8 +593,34 @@ public class EasyTableView extends View {
         drawMergedCells(canvas);
         // draw outer stroke while outStrokeSize>0
         drawOutStroke(canvas);
-        // draw top decorations, above everything
-        drawTopDecorations(canvas);
+    }
+
+    // pictures can not be drawn by hardware accelerated canvas before Android M
+    private boolean canDrawPicture(Canvas canvas) {
+        return !canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
+
+    // record the whole table into base and content pictures
+    private void recordPictures() {
+        if (null == basePicture) {
+            basePicture = new Picture();
+            contentPicture = new Picture();
+        }
+
+        // every cell is recorded
+        visibleStartRow = 0;
+        visibleEndRow = rows - 1;
+        visibleStartLine = 0;
+        visibleEndLine = lines - 1;
+
+        int width = getWidth();
+        int height = getHeight();
+        drawBase(basePicture.beginRecording(width, height));
+        basePicture.endRecording();
+        drawContent(contentPicture.beginRecording(width, height));
+        contentPicture.endRecording();
+
+        pictureValid = true;
     }
 
     // init data such as coordinate
@@ -263,41 +639,369 @@ public class EasyTableView extends View {
                 heightArr[r] = fixHeight;
         }
 
+        // init starting coordinate of each row and line
+        if (null == rowOffsets || rowOffsets.length < rows + 1)
+            rowOffsets = new float[Math.max(rows + 1, null == rowOffsets ? 0 : rowOffsets.length * 3 / 2)];
+        if (null == lineOffsets || lineOffsets.length < lines + 1)
+            lineOffsets = new float[Math.max(lines + 1, null == lineOffsets ? 0 : lineOffsets.length * 3 / 2)];
+        rowOffsets[0] = bgRectF.top;
+        for (int r = 0; r < rows; r++)
+            rowOffsets[r + 1] = rowOffsets[r] + heightArr[r];
+        lineOffsets[0] = bgRectF.left;
+        for (int l = 0; l < lines; l++)
+            lineOffsets[l + 1] = lineOffsets[l] + widthArr[l];
+
         // init cells x, y coordinate, set row and line,
         // set width and height of each cell to max value
-        float startY = bgRectF.top;
-        for (int r = 0; r < rows; r++) {
-            float startX = bgRectF.left;
-            for (int l = 0; l < lines; l++) {
-                cellArr[r][l].row = r;
-                cellArr[r][l].line = l;
-                cellArr[r][l].startX = startX;
-                cellArr[r][l].startY = startY;
-                cellArr[r][l].width = widthArr[l];
-                cellArr[r][l].height = heightArr[r];
-                startX += widthArr[l];
-            }
-            startY += heightArr[r];
+        if (null == adapter) {
+            // packed cells and the shared empty cell are laid out while they are read
+            if (cellStore.keepsInstances())
+                layoutCells();
+        } else {
+            // bound cells are laid out while bound again
+            clearBoundCells();
         }
+        layoutAll = false;
+        pendingLayoutCells.clear();
+        layoutStartRow = Integer.MAX_VALUE;
+        layoutEndRow = 0;
+        layoutStartLine = Integer.MAX_VALUE;
+        layoutEndLine = 0;
 
         // init merged cells startX, startY, width and height
         int mergeInfoSize = mergeInfoList.size();
-        for (int i = 0; i < mergeInfoSize; i++) {
-            MergeInfo mergeInfo = mergeInfoList.get(i);
-            mergeInfo.startX = cellArr[mergeInfo.startRow][mergeInfo.startLine].startX;
-            mergeInfo.startY = cellArr[mergeInfo.startRow][mergeInfo.startLine].startY;
-            float width = 0.0f;
-            float height = 0.0f;
-            for (int r = mergeInfo.startRow; r <= mergeInfo.endRow; r++) {
-                width = 0.0f;
-                for (int l = mergeInfo.startLine; l <= mergeInfo.endLine; l++)
-                    width += cellArr[r][l].width; // just for convenience
-
-                height += cellArr[r][0].height;
+        for (int i = 0; i < mergeInfoSize; i++)
+            layoutMergedCell(mergeInfoList.get(i));
+
+        initStrokeLines();
+        initPaths();
+
+        layoutValid = true;
+    }
+
+    // lay out the stored cells, only cells of rows and lines which are shifted or resized
+    // unless every cell is invalid, cells of the other ones keep their coordinate
+    private void layoutCells() {
+        int startRow = 0;
+        int endRow = rows;
+        int startLine = 0;
+        int endLine = lines;
+        if (!layoutAll) {
+            startRow = Math.min(layoutStartRow, rows);
+            endRow = Math.min(layoutEndRow, rows);
+            startLine = Math.min(layoutStartLine, lines);
+            endLine = Math.min(layoutEndLine, lines);
+            // size of every line or row is averaged again while their count is changed
+            if (startLine < endLine && (mode == MODE_FIX_WIDTH || mode == MODE_FIX_WIDTH_HEIGHT)) {
+                startLine = 0;
+                endLine = lines;
+            }
+            if (startRow < endRow && (mode == MODE_FIX_HEIGHT || mode == MODE_FIX_WIDTH_HEIGHT)) {
+                startRow = 0;
+                endRow = rows;
+            }
+        }
+
+        // cells updated out of the invalid rows and lines, which are still in the table
+        int pendingSize = pendingLayoutCells.size();
+        for (int i = 0; i < pendingSize; i++) {
+            CellInfo cellInfo = pendingLayoutCells.get(i);
+            if (cellInfo.row < rows && cellInfo.line < lines && cellStore.get(cellInfo.row, cellInfo.line) == cellInfo)
+                layoutCell(cellInfo, cellInfo.row, cellInfo.line);
+        }
+
+        // every line of the invalid rows
+        for (int r = startRow; r < endRow; r++)
+            for (int l = 0; l < lines; l++)
+                layoutStoredCell(r, l);
+        // the invalid lines of the other rows
+        if (startLine < endLine) {
+            for (int r = 0; r < rows; r++) {
+                if (r >= startRow && r < endRow)
+                    continue;
+                for (int l = startLine; l < endLine; l++)
+                    layoutStoredCell(r, l);
+            }
+        }
+    }
+
+    private void layoutStoredCell(int row, int line) {
+        CellInfo cellInfo = cellStore.get(row, line);
+        if (!cellInfo.readOnly)
+            layoutCell(cellInfo, row, line);
+    }
+
+    // init paths of headers and outer stroke, they only depend on
+    // the table bounds, size of the first row and line, and the corner
+    private void initPaths() {
+        // VH header
+        headerVHPath.reset();
+        if (rows > 1 && lines > 1) {
+            float twiceCorner = outStrokeCorner * 2;
+            tRectF.left = bgRectF.left;
+            tRectF.top = bgRectF.top;
+            tRectF.right = bgRectF.left + twiceCorner;
+            tRectF.bottom = bgRectF.top + twiceCorner;
+            headerVHPath.moveTo(bgRectF.left + widthArr[0], bgRectF.top);
+            headerVHPath.lineTo(bgRectF.left + outStrokeCorner, bgRectF.top);
+            headerVHPath.arcTo(tRectF, -90.0f, -90.0f);
+            headerVHPath.lineTo(bgRectF.left, bgRectF.top + heightArr[0]);
+            headerVHPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top + heightArr[0]);
+            headerVHPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top);
+            headerVHPath.close();
+        }
+
+        // horizontal header
+        headerHPath.reset();
+        if (rows > 1 && lines > 1) {
+            float twiceCorner = outStrokeCorner * 2;
+            tRectF.left = bgRectF.right - twiceCorner;
+            tRectF.top = bgRectF.top;
+            tRectF.right = bgRectF.right;
+            tRectF.bottom = bgRectF.top + twiceCorner;
+            headerHPath.moveTo(bgRectF.left + widthArr[0], bgRectF.top);
+            headerHPath.lineTo(bgRectF.right - outStrokeCorner, bgRectF.top);
+            headerHPath.arcTo(tRectF, -90.0f, 90.0f);
+            headerHPath.lineTo(bgRectF.right, bgRectF.top + heightArr[0]);
+            headerHPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top + heightArr[0]);
+            headerHPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top);
+            headerHPath.close();
+        }
+
+        // vertical header
+        headerVPath.reset();
+        if (rows > 1 && lines > 1) {
+            float twiceCorner = outStrokeCorner * 2;
+            tRectF.left = bgRectF.left;
+            tRectF.top = bgRectF.bottom - twiceCorner;
+            tRectF.right = bgRectF.left + twiceCorner;
+            tRectF.bottom = bgRectF.bottom;
+            headerVPath.moveTo(bgRectF.left, bgRectF.top + heightArr[0]);
+            headerVPath.lineTo(bgRectF.left, bgRectF.bottom - outStrokeCorner);
+            headerVPath.arcTo(tRectF, 180.0f, -90.0f);
+            headerVPath.lineTo(bgRectF.left + widthArr[0], bgRectF.bottom);
+            headerVPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top + heightArr[0]);
+            headerVPath.lineTo(bgRectF.left, bgRectF.top + heightArr[0]);
+            headerVPath.close();
+        }
+
+        // outer stroke
+        float startPathX;
+        if (outStrokeCorner > 0)
+            startPathX = bgRectF.left + outStrokeCorner;
+        else
+            startPathX = bgRectF.left + outStrokeCorner - outStrokeSize / 2;
+
+        outStrokePath.reset();
+        outStrokePath.moveTo(startPathX, bgRectF.top);
+        addLeftTopCornerPath(outStrokePath);
+        outStrokePath.lineTo(bgRectF.left, bgRectF.bottom - outStrokeCorner);
+        addLeftBottomCornerPath(outStrokePath);
+        outStrokePath.lineTo(bgRectF.right - outStrokeCorner, bgRectF.bottom);
+        addRightBottomCornerPath(outStrokePath);
+        outStrokePath.lineTo(bgRectF.right, bgRectF.top + outStrokeCorner);
+        addRightTopCornerPath(outStrokePath);
+        outStrokePath.lineTo(bgRectF.left + outStrokeCorner, bgRectF.top);
+    }
+
+    // init segments of inner strokes, the top edge of each row except the first one,
+    // and the left edge of each line except the first one, ignoring those
+    // after an empty row or line
+    private void initStrokeLines() {
+        if (null == rowStrokeIndex || rowStrokeIndex.length != rows + 1)
+            rowStrokeIndex = new int[rows + 1];
+        if (null == lineStrokeIndex || lineStrokeIndex.length != lines + 1)
+            lineStrokeIndex = new int[lines + 1];
+        int segments = 0;
+        for (int r = 0; r < rows; r++) {
+            rowStrokeIndex[r] = segments;
+            if (r > 0 && heightArr[r - 1] > 0)
+                ++segments;
+        }
+        rowStrokeIndex[rows] = segments;
+        for (int l = 0; l < lines; l++) {
+            lineStrokeIndex[l] = segments;
+            if (l > 0 && widthArr[l - 1] > 0)
+                ++segments;
+        }
+        lineStrokeIndex[lines] = segments;
+
+        if (null == strokeLines || strokeLines.length < segments * 4)
+            strokeLines = new float[segments * 4];
+        int i = 0;
+        for (int r = 1; r < rows; r++) {
+            if (heightArr[r - 1] > 0) {
+                strokeLines[i++] = bgRectF.left;
+                strokeLines[i++] = rowOffsets[r];
+                strokeLines[i++] = bgRectF.right;
+                strokeLines[i++] = rowOffsets[r];
             }
-            mergeInfo.width = width;
-            mergeInfo.height = height;
         }
+        for (int l = 1; l < lines; l++) {
+            if (widthArr[l - 1] > 0) {
+                strokeLines[i++] = lineOffsets[l];
+                strokeLines[i++] = bgRectF.top;
+                strokeLines[i++] = lineOffsets[l];
+                strokeLines[i++] = bgRectF.bottom;
+            }
+        }
+    }
+
+    // mark coordinates of cells and merged cells as invalid,
+    // they will be recalculated before the next drawing
+    private void invalidateLayout() {
+        layoutAll = true;
+        invalidateCoordinates();
+    }
+
+    // mark coordinates of cells in rows from start(inclusive) to end(exclusive)
+    // as invalid, such as rows shifted by inserting or removing rows, only these
+    // cells and merged cells will be laid out again before the next drawing
+    private void invalidateRowsLayout(int start, int end) {
+        layoutStartRow = Math.min(layoutStartRow, start);
+        layoutEndRow = Math.max(layoutEndRow, end);
+        invalidateCoordinates();
+    }
+
+    // mark coordinates of cells in lines from start(inclusive) to end(exclusive)
+    // as invalid, the same as rows
+    private void invalidateLinesLayout(int start, int end) {
+        layoutStartLine = Math.min(layoutStartLine, start);
+        layoutEndLine = Math.max(layoutEndLine, end);
+        invalidateCoordinates();
+    }
+
+    private void invalidateCoordinates() {
+        layoutValid = false;
+        pictureValid = false;
+        if (null != tileCache)
+            tileCache.invalidateAll();
+        headerRowStrip.invalidateAll();
+        headerLineStrip.invalidateAll();
+    }
+
+    // geometry attributes are changed, such as mode, size of outer stroke, corner,
+    // rows and lines, size or coordinate of cells may be changed, so layout again
+    private void invalidateGeometry() {
+        invalidateLayout();
+        requestLayout();
+        invalidate();
+    }
+
+    // paint-only attributes are changed, such as colors, coordinate of
+    // cells is still valid, so just redraw including the recorded content
+    private void invalidatePaint() {
+        pictureValid = false;
+        if (null != tileCache)
+            tileCache.invalidateAll();
+        headerRowStrip.invalidateAll();
+        headerLineStrip.invalidateAll();
+        invalidate();
+    }
+
+    // redraw only the area of a cell while layout is not changed, recorded content in the
+    // area is invalid too, expanded by the stroke size since strokes are drawn across the
+    // edge of cells
+    private void invalidateArea(float left, float top, float right, float bottom) {
+        float expand = Math.max(strokeSize, outStrokeSize);
+        left -= expand;
+        top -= expand;
+        right += expand;
+        bottom += expand;
+
+        pictureValid = false;
+        if (null != tileCache)
+            tileCache.invalidate(left, top, right, bottom);
+
+        // header cells are re-recorded only while they are changed
+        boolean headerChanged = false;
+        if (rows > 0 && top <= rowOffsets[1]) {
+            headerRowStrip.invalidate((int) Math.floor(left), (int) Math.ceil(right));
+            headerChanged = true;
+        }
+        if (lines > 0 && left <= lineOffsets[1]) {
+            headerLineStrip.invalidate((int) Math.floor(top), (int) Math.ceil(bottom));
+            headerChanged = true;
+        }
+
+        // frozen headers are not drawn at their coordinate in the table
+        if (headerChanged && scrollable && headersFrozen)
+            invalidate();
+        else
+            invalidate((int) Math.floor(left), (int) Math.floor(top), (int) Math.ceil(right), (int) Math.ceil(bottom));
+    }
+
+    private void invalidateCell(CellInfo cellInfo) {
+        invalidateArea(cellInfo.startX, cellInfo.startY,
+                cellInfo.startX + cellInfo.width, cellInfo.startY + cellInfo.height);
+    }
+
+    private void invalidateMergedCell(MergeInfo mergeInfo) {
+        invalidateArea(mergeInfo.startX, mergeInfo.startY,
+                mergeInfo.startX + mergeInfo.width, mergeInfo.startY + mergeInfo.height);
+    }
+
+    // set coordinate of a cell while layout is valid
+    private void layoutCell(CellInfo cellInfo, int row, int line) {
+        cellInfo.row = row;
+        cellInfo.line = line;
+        cellInfo.startX = lineOffsets[line];
+        cellInfo.startY = rowOffsets[row];
+        cellInfo.width = widthArr[line];
+        cellInfo.height = heightArr[row];
+    }
+
+    // set coordinate of a merged cell while layout is valid
+    private void layoutMergedCell(MergeInfo mergeInfo) {
+        mergeInfo.startX = lineOffsets[mergeInfo.startLine];
+        mergeInfo.startY = rowOffsets[mergeInfo.startRow];
+        mergeInfo.width = lineOffsets[mergeInfo.endLine + 1] - mergeInfo.startX;
+        mergeInfo.height = rowOffsets[mergeInfo.endRow + 1] - mergeInfo.startY;
+    }
+
+    // calculate the visible range of rows and lines by the clip bounds of canvas,
+    // only the cells, strokes and merged cells in this range will be drawn
+    private void initVisibleRange(Canvas canvas) {
+        if (!canvas.getClipBounds(tClipRect))
+            tClipRect.setEmpty();
+        if (rows <= 0 || lines <= 0 || tClipRect.isEmpty()) {
+            visibleStartRow = 0;
+            visibleEndRow = -1;
+            visibleStartLine = 0;
+            visibleEndLine = -1;
+            return;
+        }
+
+        // expand by the stroke size, strokes are drawn across the edge of cells
+        visibleStartRow = getRowByY(tClipRect.top - strokeSize);
+        visibleEndRow = getRowByY(tClipRect.bottom + strokeSize);
+        visibleStartLine = getLineByX(tClipRect.left - strokeSize);
+        visibleEndLine = getLineByX(tClipRect.right + strokeSize);
+    }
+
+    // get the row containing y coordinate, between 0 and rows-1
+    private int getRowByY(float y) {
+        return searchOffsets(rowOffsets, rows, y);
+    }
+
+    // get the line containing x coordinate, between 0 and lines-1
+    private int getLineByX(float x) {
+        return searchOffsets(lineOffsets, lines, x);
+    }
+
+    // binary search the first range whose ending is not less than value,
+    // range i is from offsets[i] to offsets[i+1], the result is between 0 and count-1
+    private static int searchOffsets(float[] offsets, int count, float value) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (value <= offsets[mid + 1])
+                high = mid;
+            else
+                low = mid + 1;
+        }
+        return low;
     }
 
     // draw background
@@ -309,128 +1013,127 @@ public class EasyTableView extends View {
     // draw VH header
     private void drawHeaderVH(Canvas canvas) {
         // draw at least 2x2
-        if (cellArr.length > 1 && cellArr[0].length > 1) {
-            float twiceCorner = outStrokeCorner * 2;
+        if (rows > 1 && lines > 1) {
             paint.setColor(headerHVColor);
-            tRectF.left = bgRectF.left;
-            tRectF.top = bgRectF.top;
-            tRectF.right = bgRectF.left + twiceCorner;
-            tRectF.bottom = bgRectF.top + twiceCorner;
-            tPath.reset();
-            tPath.moveTo(bgRectF.left + widthArr[0], bgRectF.top);
-            tPath.lineTo(bgRectF.left + outStrokeCorner, bgRectF.top);
-            tPath.arcTo(tRectF, -90.0f, -90.0f);
-            tPath.lineTo(bgRectF.left, bgRectF.top + heightArr[0]);
-            tPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top + heightArr[0]);
-            tPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top);
-            tPath.close();
-            canvas.drawPath(tPath, paint);
+            canvas.drawPath(headerVHPath, paint);
         }
     }
 
     // draw horizontal header
     private void drawHeaderH(Canvas canvas) {
         // draw at least 2x2
-        if (cellArr.length > 1 && cellArr[0].length > 1) {
-            float twiceCorner = outStrokeCorner * 2;
+        if (rows > 1 && lines > 1) {
             paint.setColor(headerHColor);
-            tRectF.left = bgRectF.right - twiceCorner;
-            tRectF.top = bgRectF.top;
-            tRectF.right = bgRectF.right;
-            tRectF.bottom = bgRectF.top + twiceCorner;
-            tPath.reset();
-            tPath.moveTo(bgRectF.left + widthArr[0], bgRectF.top);
-            tPath.lineTo(bgRectF.right - outStrokeCorner, bgRectF.top);
-            tPath.arcTo(tRectF, -90.0f, 90.0f);
-            tPath.lineTo(bgRectF.right, bgRectF.top + heightArr[0]);
-            tPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top + heightArr[0]);
-            tPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top);
-            tPath.close();
-            canvas.drawPath(tPath, paint);
+            canvas.drawPath(headerHPath, paint);
         }
     }
 
     // draw vertical header
     private void drawHeaderV(Canvas canvas) {
         // draw at least 2x2
-        if (cellArr.length > 1 && cellArr[0].length > 1) {
-            float twiceCorner = outStrokeCorner * 2;
+        if (rows > 1 && lines > 1) {
             paint.setColor(headerVColor);
-            tRectF.left = bgRectF.left;
-            tRectF.top = bgRectF.bottom - twiceCorner;
-            tRectF.right = bgRectF.left + twiceCorner;
-            tRectF.bottom = bgRectF.bottom;
-            tPath.reset();
-            tPath.moveTo(bgRectF.left, bgRectF.top + heightArr[0]);
-            tPath.lineTo(bgRectF.left, bgRectF.bottom - outStrokeCorner);
-            tPath.arcTo(tRectF, 180.0f, -90.0f);
-            tPath.lineTo(bgRectF.left + widthArr[0], bgRectF.bottom);
-            tPath.lineTo(bgRectF.left + widthArr[0], bgRectF.top + heightArr[0]);
-            tPath.lineTo(bgRectF.left, bgRectF.top + heightArr[0]);
-            tPath.close();
-            canvas.drawPath(tPath, paint);
+            canvas.drawPath(headerVPath, paint);
         }
     }
 
-    // draw background of cells
+    // draw background of cells, cells in the same color next to each other
+    // in a row are drawn as one rectangle, only the corner cells of table
+    // need a path with circular corner
     private void drawCellsInfoBg(Canvas canvas) {
-        for (int r = 0; r < rows; r++) {
-            for (int l = 0; l < lines; l++) {
-                if (cellArr[r][l].type != CellInfo.TYPE_NONE) {
-                    if (cellArr[r][l].bgColor != 0 && cellArr[r][l].width > 0 && cellArr[r][l].height > 0) {
-                        tRectF.left = cellArr[r][l].startX;
-                        tRectF.top = cellArr[r][l].startY;
-                        tRectF.right = cellArr[r][l].startX + cellArr[r][l].width;
-                        tRectF.bottom = cellArr[r][l].startY + cellArr[r][l].height;
-                        this.paint.setColor(cellArr[r][l].bgColor);
-
-                        tPath.reset();
-
-                        tPath.moveTo(tRectF.left - outStrokeCorner, tRectF.top);
-
-                        if (r == 0 && l == 0) {
-                            addLeftTopCornerPath();
-                        } else {
-                            tPath.lineTo(tRectF.left, tRectF.top);
-                            tPath.lineTo(tRectF.left, tRectF.top + outStrokeCorner);
-                        }
+        for (int r = visibleStartRow; r <= visibleEndRow; r++) {
+            // starting line and color of the current run of cells
+            int runStart = -1;
+            int runColor = 0;
+            for (int l = visibleStartLine; l <= visibleEndLine; l++) {
+                CellInfo cellInfo = getCell(r, l);
+                int color = 0;
+                if (cellInfo.type != CellInfo.TYPE_NONE && cellInfo.width > 0 && cellInfo.height > 0)
+                    color = cellInfo.bgColor;
+                boolean corner = isCornerCell(r, l);
+
+                if (runStart >= 0 && (color != runColor || corner)) {
+                    drawCellsBgRun(canvas, r, runStart, l - 1, runColor);
+                    runStart = -1;
+                }
 
-                        tPath.lineTo(tRectF.left, tRectF.bottom - outStrokeCorner);
+                if (color == 0)
+                    continue;
 
-                        if (r == rows - 1 && l == 0) {
-                            addLeftBottomCornerPath();
-                        } else {
-                            tPath.lineTo(tRectF.left, tRectF.bottom);
-                            tPath.lineTo(tRectF.left + outStrokeCorner, tRectF.bottom);
-                        }
+                if (corner) {
+                    drawCornerCellBg(canvas, cellInfo, r, l);
+                } else if (runStart < 0) {
+                    runStart = l;
+                    runColor = color;
+                }
+            }
+            if (runStart >= 0)
+                drawCellsBgRun(canvas, r, runStart, visibleEndLine, runColor);
+        }
+    }
 
-                        tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.bottom);
+    // whether the cell is at one of the four corners of table
+    private boolean isCornerCell(int row, int line) {
+        return (row == 0 || row == rows - 1) && (line == 0 || line == lines - 1);
+    }
 
-                        if (r == rows - 1 && l == lines - 1) {
-                            addRightBottomCornerPath();
-                        } else {
-                            tPath.lineTo(tRectF.right, tRectF.bottom);
-                            tPath.lineTo(tRectF.right, tRectF.bottom - outStrokeCorner);
-                        }
+    // draw background of cells in a row from startLine to endLine
+    private void drawCellsBgRun(Canvas canvas, int row, int startLine, int endLine, int color) {
+        paint.setColor(color);
+        canvas.drawRect(lineOffsets[startLine], rowOffsets[row], lineOffsets[endLine + 1], rowOffsets[row + 1], paint);
+    }
 
-                        tPath.lineTo(tRectF.right, tRectF.top + outStrokeCorner);
+    // draw background of a corner cell, with circular corner
+    private void drawCornerCellBg(Canvas canvas, CellInfo cellInfo, int r, int l) {
+        tRectF.left = cellInfo.startX;
+        tRectF.top = cellInfo.startY;
+        tRectF.right = cellInfo.startX + cellInfo.width;
+        tRectF.bottom = cellInfo.startY + cellInfo.height;
+        paint.setColor(cellInfo.bgColor);
 
-                        if (r == 0 && l == lines - 1) {
-                            addRightTopCornerPath();
-                        } else {
-                            tPath.lineTo(tRectF.right, tRectF.top);
-                            tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.top);
-                        }
+        tPath.reset();
 
-                        tPath.lineTo(tRectF.left - outStrokeCorner, tRectF.top);
+        tPath.moveTo(tRectF.left - outStrokeCorner, tRectF.top);
 
-                        tPath.close();
+        if (r == 0 && l == 0) {
+            addLeftTopCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.left, tRectF.top);
+            tPath.lineTo(tRectF.left, tRectF.top + outStrokeCorner);
+        }
 
-                        canvas.drawPath(tPath, paint);
-                    }
-                }
-            }
+        tPath.lineTo(tRectF.left, tRectF.bottom - outStrokeCorner);
+
+        if (r == rows - 1 && l == 0) {
+            addLeftBottomCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.left, tRectF.bottom);
+            tPath.lineTo(tRectF.left + outStrokeCorner, tRectF.bottom);
+        }
+
+        tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.bottom);
+
+        if (r == rows - 1 && l == lines - 1) {
+            addRightBottomCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.right, tRectF.bottom);
+            tPath.lineTo(tRectF.right, tRectF.bottom - outStrokeCorner);
+        }
+
+        tPath.lineTo(tRectF.right, tRectF.top + outStrokeCorner);
+
+        if (r == 0 && l == lines - 1) {
+            addRightTopCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.right, tRectF.top);
+            tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.top);
         }
+
+        tPath.lineTo(tRectF.left - outStrokeCorner, tRectF.top);
+
+        tPath.close();
+
+        canvas.drawPath(tPath, paint);
     }
 
     // draw bottom decorations
@@ -442,10 +1145,12 @@ public class EasyTableView extends View {
 
     // draw info of cells(texts for now)
     private void drawCellsInfo(Canvas canvas) {
-        for (int r = 0; r < rows; r++)
-            for (int l = 0; l < lines; l++)
-                if (cellArr[r][l].type != CellInfo.TYPE_NONE)
-                    drawTexts(canvas, cellArr[r][l]);
+        for (int r = visibleStartRow; r <= visibleEndRow; r++)
+            for (int l = visibleStartLine; l <= visibleEndLine; l++) {
+                CellInfo cellInfo = getCell(r, l);
+                if (cellInfo.type != CellInfo.TYPE_NONE)
+                    drawTexts(canvas, cellInfo);
+            }
     }
 
     // draw strokes while strokeSize>0
@@ -453,123 +1158,147 @@ public class EasyTableView extends View {
         if (strokeSize > 0) {
             strokePaint.setColor(strokeColor);
             strokePaint.setStrokeWidth(strokeSize);
-            for (int r = 1; r < rows; r++)
-                if (cellArr[r - 1][0].height > 0)
-                    canvas.drawLine(cellArr[r][0].startX, cellArr[r][0].startY, bgRectF.right, cellArr[r][0].startY, strokePaint);
-            for (int l = 1; l < lines; l++)
-                if (cellArr[0][l - 1].width > 0)
-                    canvas.drawLine(cellArr[0][l].startX, cellArr[0][l].startY, cellArr[0][l].startX, bgRectF.bottom, strokePaint);
+
+            if (visibleStartRow > visibleEndRow || visibleStartLine > visibleEndLine)
+                return;
+
+            // segments of visible rows and lines, including the bottom edge
+            // of the last visible row and the right edge of the last visible line
+            int rowStart = rowStrokeIndex[visibleStartRow];
+            int rowEnd = rowStrokeIndex[Math.min(visibleEndRow + 2, rows)];
+            int lineStart = lineStrokeIndex[visibleStartLine];
+            int lineEnd = lineStrokeIndex[Math.min(visibleEndLine + 2, lines)];
+            if (rowEnd == lineStart) { // all in one batch
+                drawStrokeLines(canvas, rowStart, lineEnd);
+            } else {
+                drawStrokeLines(canvas, rowStart, rowEnd);
+                drawStrokeLines(canvas, lineStart, lineEnd);
+            }
         }
     }
 
+    // draw stroke segments from start(inclusive) to end(exclusive)
+    private void drawStrokeLines(Canvas canvas, int start, int end) {
+        if (start < end)
+            canvas.drawLines(strokeLines, start * 4, (end - start) * 4, strokePaint);
+    }
+
     // draw merged cells, this actually is covering normal cells
     // but will not cover the strokes
     private void drawMergedCells(Canvas canvas) {
+        int size = mergeInfoList.size();
+        if (size <= 0 || visibleStartRow > visibleEndRow || visibleStartLine > visibleEndLine)
+            return;
+
+        int visibleCells = (visibleEndRow - visibleStartRow + 1) * (visibleEndLine - visibleStartLine + 1);
+        if (size <= visibleCells) {
+            // traverse merged cells, ignore those out of the visible range
+            for (int i = 0; i < size; i++) {
+                MergeInfo mergeInfo = mergeInfoList.get(i);
+                if (mergeInfo.endRow < visibleStartRow || mergeInfo.startRow > visibleEndRow ||
+                        mergeInfo.endLine < visibleStartLine || mergeInfo.startLine > visibleEndLine)
+                    continue;
+                drawMergedCell(canvas, mergeInfo);
+            }
+        } else {
+            // traverse visible cells, each merged cell is drawn once
+            // at its first visible cell
+            for (int r = visibleStartRow; r <= visibleEndRow; r++) {
+                for (int l = visibleStartLine; l <= visibleEndLine; l++) {
+                    MergeInfo mergeInfo = mergeIndex.get(cellKey(r, l));
+                    if (null != mergeInfo &&
+                            r == Math.max(mergeInfo.startRow, visibleStartRow) &&
+                            l == Math.max(mergeInfo.startLine, visibleStartLine))
+                        drawMergedCell(canvas, mergeInfo);
+                }
+            }
+        }
+    }
+
+    // draw a merged cell
+    private void drawMergedCell(Canvas canvas, MergeInfo mergeInfo) {
         float halfStrokeSize = strokeSize / 2.0f;
 
-        for (MergeInfo mergeInfo : mergeInfoList) {
-            if (mergeInfo.startLine != 0)
-                tRectF.left = mergeInfo.startX + halfStrokeSize;
-            else
-                tRectF.left = bgRectF.left;
+        if (mergeInfo.startLine != 0)
+            tRectF.left = mergeInfo.startX + halfStrokeSize;
+        else
+            tRectF.left = bgRectF.left;
 
-            if (mergeInfo.startRow != 0)
-                tRectF.top = mergeInfo.startY + halfStrokeSize;
-            else
-                tRectF.top = bgRectF.top;
+        if (mergeInfo.startRow != 0)
+            tRectF.top = mergeInfo.startY + halfStrokeSize;
+        else
+            tRectF.top = bgRectF.top;
 
-            if (mergeInfo.endLine != lines - 1)
-                tRectF.right = mergeInfo.startX + mergeInfo.width - halfStrokeSize;
-            else
-                tRectF.right = bgRectF.right;
+        if (mergeInfo.endLine != lines - 1)
+            tRectF.right = mergeInfo.startX + mergeInfo.width - halfStrokeSize;
+        else
+            tRectF.right = bgRectF.right;
 
-            if (mergeInfo.endRow != rows - 1)
-                tRectF.bottom = mergeInfo.startY + mergeInfo.height - halfStrokeSize;
-            else
-                tRectF.bottom = bgRectF.bottom;
+        if (mergeInfo.endRow != rows - 1)
+            tRectF.bottom = mergeInfo.startY + mergeInfo.height - halfStrokeSize;
+        else
+            tRectF.bottom = bgRectF.bottom;
 
-            paint.setColor(mergeInfo.bgColor);
+        paint.setColor(mergeInfo.bgColor);
 
-            tPath.reset();
+        tPath.reset();
 
-            tPath.moveTo(tRectF.left + outStrokeCorner, tRectF.top);
+        tPath.moveTo(tRectF.left + outStrokeCorner, tRectF.top);
 
-            if (mergeInfo.startRow == 0 && mergeInfo.startLine == 0) {
-                addLeftTopCornerPath();
-            } else {
-                tPath.lineTo(tRectF.left, tRectF.top);
-                tPath.lineTo(tRectF.left, tRectF.top + outStrokeCorner);
-            }
+        if (mergeInfo.startRow == 0 && mergeInfo.startLine == 0) {
+            addLeftTopCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.left, tRectF.top);
+            tPath.lineTo(tRectF.left, tRectF.top + outStrokeCorner);
+        }
 
-            tPath.lineTo(tRectF.left, tRectF.bottom - outStrokeCorner);
+        tPath.lineTo(tRectF.left, tRectF.bottom - outStrokeCorner);
 
-            if (mergeInfo.endRow == rows - 1 && mergeInfo.startLine == 0) {
-                addLeftBottomCornerPath();
-            } else {
-                tPath.lineTo(tRectF.left, tRectF.bottom);
-                tPath.lineTo(tRectF.left + outStrokeCorner, tRectF.bottom);
-            }
+        if (mergeInfo.endRow == rows - 1 && mergeInfo.startLine == 0) {
+            addLeftBottomCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.left, tRectF.bottom);
+            tPath.lineTo(tRectF.left + outStrokeCorner, tRectF.bottom);
+        }
 
-            tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.bottom);
+        tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.bottom);
 
-            if (mergeInfo.endRow == rows - 1 && mergeInfo.endLine == lines - 1) {
-                addRightBottomCornerPath();
-            } else {
-                tPath.lineTo(tRectF.right, tRectF.bottom);
-                tPath.lineTo(tRectF.right, tRectF.bottom - outStrokeCorner);
-            }
+        if (mergeInfo.endRow == rows - 1 && mergeInfo.endLine == lines - 1) {
+            addRightBottomCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.right, tRectF.bottom);
+            tPath.lineTo(tRectF.right, tRectF.bottom - outStrokeCorner);
+        }
 
-            tPath.lineTo(tRectF.right, tRectF.top + outStrokeCorner);
+        tPath.lineTo(tRectF.right, tRectF.top + outStrokeCorner);
 
-            if (mergeInfo.startRow == 0 && mergeInfo.endLine == lines - 1) {
-                addRightTopCornerPath();
-            } else {
-                tPath.lineTo(tRectF.right, tRectF.top);
-                tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.top);
-            }
+        if (mergeInfo.startRow == 0 && mergeInfo.endLine == lines - 1) {
+            addRightTopCornerPath(tPath);
+        } else {
+            tPath.lineTo(tRectF.right, tRectF.top);
+            tPath.lineTo(tRectF.right - outStrokeCorner, tRectF.top);
+        }
 
-            tPath.lineTo(tRectF.left + outStrokeCorner, tRectF.top);
+        tPath.lineTo(tRectF.left + outStrokeCorner, tRectF.top);
 
-            tPath.close();
+        tPath.close();
 
-            canvas.drawPath(tPath, paint);
+        canvas.drawPath(tPath, paint);
 
 
-            // start drawing merged cells texts
-            canvas.save();
-            canvas.clipRect(tRectF);
-
-            if (null != mergeInfo.texts && mergeInfo.texts.length > 0) {
-                int textRows = mergeInfo.texts.length;
-                float h = mergeInfo.height;
-                float w = mergeInfo.width;
-                float[] textHeights = new float[textRows];
-                float originX;
-                float baseLine;
-                Paint.FontMetrics fm;
-                float textsTotalHeight = 0.0f;
-                for (int t = 0; t < textRows; t++) {
-                    textPaint.setTextSize(mergeInfo.textSizes[t]);
-                    fm = textPaint.getFontMetrics();
-                    textHeights[t] = fm.bottom - fm.top;
-                    textsTotalHeight += textHeights[t];
-                }
-                float top = (h - textsTotalHeight) / 2.0f;
-                for (int t = 0; t < textRows; t++) {
-                    String text = mergeInfo.texts[t];
-                    if (null != text && text.length() > 0) {
-                        textPaint.setTextSize(mergeInfo.textSizes[t]);
-                        textPaint.setColor(mergeInfo.textColors[t]);
-                        fm = textPaint.getFontMetrics();
-                        originX = mergeInfo.startX + w / 2.0f - textPaint.measureText(text) / 2.0f;
-                        baseLine = mergeInfo.startY + top + textHeights[t] / 2.0f - (fm.ascent + fm.descent) / 2.0f;
-                        canvas.drawText(text, originX, baseLine, textPaint);
-                    }
-                    top += textHeights[t];
-                }
-            }
-            canvas.restore();
+        // start drawing merged cells texts
+        canvas.save();
+        canvas.clipRect(tRectF);
+
+        if (null != mergeInfo.texts && mergeInfo.texts.length > 0) {
+            if (mergeInfo.styleId < 0) // texts are set without merging again
+                fillMergeTextAttrs(mergeInfo);
+            if (null == mergeInfo.textWidths || mergeInfo.textWidths.length != mergeInfo.texts.length)
+                mergeInfo.textWidths = textWidthCache.getWidths(mergeInfo.texts, stylePool.get(mergeInfo.styleId), mergeInfo.textWidths);
+            drawTexts(canvas, mergeInfo.texts, stylePool.get(mergeInfo.styleId), mergeInfo.textWidths,
+                    mergeInfo.startX, mergeInfo.startY, mergeInfo.width, mergeInfo.height);
         }
+        canvas.restore();
     }
 
     // draw outer stroke while outStrokeSize>0
@@ -578,24 +1307,7 @@ public class EasyTableView extends View {
             strokePaint.setColor(outStrokeColor);
             strokePaint.setStrokeWidth(outStrokeSize);
 
-            float startPathX;
-            if (outStrokeCorner > 0)
-                startPathX = bgRectF.left + outStrokeCorner;
-            else
-                startPathX = bgRectF.left + outStrokeCorner - outStrokeSize / 2;
-
-            tPath.reset();
-            tPath.moveTo(startPathX, bgRectF.top);
-            addLeftTopCornerPath();
-            tPath.lineTo(bgRectF.left, bgRectF.bottom - outStrokeCorner);
-            addLeftBottomCornerPath();
-            tPath.lineTo(bgRectF.right - outStrokeCorner, bgRectF.bottom);
-            addRightBottomCornerPath();
-            tPath.lineTo(bgRectF.right, bgRectF.top + outStrokeCorner);
-            addRightTopCornerPath();
-            tPath.lineTo(bgRectF.left + outStrokeCorner, bgRectF.top);
-
-            canvas.drawPath(tPath, strokePaint);
+            canvas.drawPath(outStrokePath, strokePaint);
         }
     }
 
@@ -616,82 +1328,114 @@ public class EasyTableView extends View {
                     cellInfo.getStartY(),
                     cellInfo.getStartX() + cellInfo.width,
                     cellInfo.getStartY() + cellInfo.height);
-
-            int textRows = cellInfo.texts.length;
-            float h = cellInfo.height;
-            float w = cellInfo.width;
-            float[] textHeights = new float[textRows];
-            float originX;
-            float baseLine;
-            Paint.FontMetrics fm;
-            float textsTotalHeight = 0.0f;
-            for (int t = 0; t < textRows; t++) {
-                textPaint.setTextSize(cellInfo.textSizes[t]);
-                fm = textPaint.getFontMetrics();
-                textHeights[t] = fm.bottom - fm.top;
-                textsTotalHeight += textHeights[t];
+            // widths of texts are not cached into read-only cells, but looked up while drawing
+            if (cellInfo.styleId < 0 && !cellInfo.readOnly) // texts are set without updating data
+                fillTextAttrs(cellInfo);
+            CellStyle style = stylePool.get(cellInfo.styleId);
+            if (null == style) {
+                canvas.restore();
+                return;
             }
-            float top = (h - textsTotalHeight) / 2.0f;
-            for (int t = 0; t < textRows; t++) {
-                String text = cellInfo.texts[t];
-                if (null != text && text.length() > 0) {
-                    textPaint.setTextSize(cellInfo.textSizes[t]);
-                    textPaint.setColor(cellInfo.textColors[t]);
-                    fm = textPaint.getFontMetrics();
-                    originX = cellInfo.startX + w / 2.0f - textPaint.measureText(text) / 2.0f;
-                    baseLine = cellInfo.startY + top + textHeights[t] / 2.0f - (fm.ascent + fm.descent) / 2.0f;
-                    canvas.drawText(text, originX, baseLine, textPaint);
-                }
-                top += textHeights[t];
+            float[] textWidths = null;
+            if (!cellInfo.readOnly) {
+                if (null == cellInfo.textWidths || cellInfo.textWidths.length != cellInfo.texts.length)
+                    cellInfo.textWidths = textWidthCache.getWidths(cellInfo.texts, style, cellInfo.textWidths);
+                textWidths = cellInfo.textWidths;
             }
+            drawTexts(canvas, cellInfo.texts, style, textWidths,
+                    cellInfo.startX, cellInfo.startY, cellInfo.width, cellInfo.height);
             canvas.restore();
         }
     }
 
-    // add a left-top circular corner to tPath
-    private void addLeftTopCornerPath() {
+    // draw texts aligned by the style in the area, centered vertically, can be multiple
+    // lines with different text size and color, textWidths can be null to look up
+    // widths of texts in cache
+    private void drawTexts(Canvas canvas, String[] texts, CellStyle style, float[] textWidths,
+                           float startX, float startY, float w, float h) {
+        Typeface typeface = style.getTypeface();
+        if (textPaint.getTypeface() != typeface)
+            textPaint.setTypeface(typeface);
+
+        int textRows = texts.length;
+        float textsTotalHeight = 0.0f;
+        for (int t = 0; t < textRows; t++)
+            textsTotalHeight += fontMetricsCache.getLineHeight(typeface, style.getTextSize(t));
+
+        float originX;
+        float baseLine;
+        float textHeight;
+        float textWidth;
+        float top = (h - textsTotalHeight) / 2.0f;
+        int textSize;
+        for (int t = 0; t < textRows; t++) {
+            String text = texts[t];
+            textSize = style.getTextSize(t);
+            textHeight = fontMetricsCache.getLineHeight(typeface, textSize);
+            if (null != text && text.length() > 0) {
+                textPaint.setTextSize(textSize);
+                textPaint.setColor(style.getTextColor(t));
+                textWidth = null != textWidths ? textWidths[t] : textWidthCache.getWidth(text, textSize, typeface);
+                if (style.getAlign() == CellStyle.ALIGN_LEFT) // inside the stroke
+                    originX = startX + strokeSize / 2.0f;
+                else if (style.getAlign() == CellStyle.ALIGN_RIGHT)
+                    originX = startX + w - strokeSize / 2.0f - textWidth;
+                else
+                    originX = startX + w / 2.0f - textWidth / 2.0f;
+                baseLine = startY + top + textHeight / 2.0f + fontMetricsCache.getBaselineOffset(typeface, textSize);
+                canvas.drawText(text, originX, baseLine, textPaint);
+            }
+            top += textHeight;
+        }
+    }
+
+    // add a left-top circular corner to path
+    private void addLeftTopCornerPath(Path path) {
         tCornerRectF.left = bgRectF.left;
         tCornerRectF.top = bgRectF.top;
         tCornerRectF.right = bgRectF.left + outStrokeCorner * 2;
         tCornerRectF.bottom = bgRectF.top + outStrokeCorner * 2;
-        tPath.arcTo(tCornerRectF, -90.0f, -90.0f);
+        path.arcTo(tCornerRectF, -90.0f, -90.0f);
     }
 
-    // add a left-bottom circular corner to tPath
-    private void addLeftBottomCornerPath() {
+    // add a left-bottom circular corner to path
+    private void addLeftBottomCornerPath(Path path) {
         tCornerRectF.left = bgRectF.left;
         tCornerRectF.top = bgRectF.bottom - outStrokeCorner * 2;
         tCornerRectF.right = bgRectF.left + outStrokeCorner * 2;
         tCornerRectF.bottom = bgRectF.bottom;
-        tPath.arcTo(tCornerRectF, 180.0f, -90.0f);
+        path.arcTo(tCornerRectF, 180.0f, -90.0f);
     }
 
-    // add a right-bottom circular corner to tPath
-    private void addRightBottomCornerPath() {
+    // add a right-bottom circular corner to path
+    private void addRightBottomCornerPath(Path path) {
         tCornerRectF.left = bgRectF.right - outStrokeCorner * 2;
         tCornerRectF.top = bgRectF.bottom - outStrokeCorner * 2;
         tCornerRectF.right = bgRectF.right;
         tCornerRectF.bottom = bgRectF.bottom;
-        tPath.arcTo(tCornerRectF, 90.0f, -90.0f);
+        path.arcTo(tCornerRectF, 90.0f, -90.0f);
     }
 
-    // add a right-top circular corner to tPath
-    private void addRightTopCornerPath() {
+    // add a right-top circular corner to path
+    private void addRightTopCornerPath(Path path) {
         tCornerRectF.left = bgRectF.right - outStrokeCorner * 2;
         tCornerRectF.top = bgRectF.top;
         tCornerRectF.right = bgRectF.right;
         tCornerRectF.bottom = bgRectF.top + outStrokeCorner * 2;
-        tPath.arcTo(tCornerRectF, 0.0f, -90.0f);
+        path.arcTo(tCornerRectF, 0.0f, -90.0f);
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        if (scrollable)
+            trackScroll(event);
+
         if (null != onCellClickListener) {
             switch (event.getAction()) {
                 case MotionEvent.ACTION_DOWN: {
                     downX = event.getX();
                     downY = event.getY();
-                    curTouchCell = getCellByXY(downX, downY);
+                    curTouchCell = getCellByXY(toTableX(downX), toTableY(downY));
                     checkForLongClick();
                     return true;
                 }
@@ -705,6 +1449,8 @@ public class EasyTableView extends View {
                 }
                 break;
                 case MotionEvent.ACTION_UP: {
+                    Object curTouchCell = this.curTouchCell;
+                    this.curTouchCell = null;
                     if (hasPerformedLongPress)
                         return false;
 
@@ -712,7 +1458,7 @@ public class EasyTableView extends View {
 
                     float downX = event.getX();
                     float downY = event.getY();
-                    Object cell = getCellByXY(downX, downY);
+                    Object cell = getCellByXY(toTableX(downX), toTableY(downY));
                     // the same cell while down and up
                     if (cell instanceof CellInfo && curTouchCell instanceof CellInfo &&
                             ((CellInfo) cell).row == ((CellInfo) curTouchCell).row &&
@@ -728,35 +1474,481 @@ public class EasyTableView extends View {
                 }
                 break;
                 case MotionEvent.ACTION_CANCEL: {
+                    curTouchCell = null;
                     removeLongPressCallback();
                 }
                 break;
             }
         }
-        return super.onTouchEvent(event);
+        // the whole gesture is needed while scrollable
+        return super.onTouchEvent(event) || scrollable;
+    }
+
+    // drag and fling the table while scrollable
+    private void trackScroll(MotionEvent event) {
+        if (null == velocityTracker)
+            velocityTracker = VelocityTracker.obtain();
+        velocityTracker.addMovement(event);
+
+        float x = event.getX();
+        float y = event.getY();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                // stop flinging while touched
+                if (!scroller.isFinished())
+                    scroller.abortAnimation();
+                scrollDownX = lastScrollX = x;
+                scrollDownY = lastScrollY = y;
+                isDragging = false;
+            }
+            break;
+            case MotionEvent.ACTION_MOVE: {
+                if (!isDragging && (Math.abs(x - scrollDownX) > touchSlop || Math.abs(y - scrollDownY) > touchSlop)) {
+                    isDragging = true;
+                    lastScrollX = x;
+                    lastScrollY = y;
+                    if (null != getParent())
+                        getParent().requestDisallowInterceptTouchEvent(true);
+                    // not a click any more
+                    curTouchCell = null;
+                    removeLongPressCallback();
+                }
+                if (isDragging) {
+                    int dx = (int) (lastScrollX - x);
+                    int dy = (int) (lastScrollY - y);
+                    // keep the fraction for the next move
+                    lastScrollX -= dx;
+                    lastScrollY -= dy;
+                    scrollBy(dx, dy);
+                }
+            }
+            break;
+            case MotionEvent.ACTION_UP: {
+                if (isDragging) {
+                    velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+                    int vx = (int) velocityTracker.getXVelocity();
+                    int vy = (int) velocityTracker.getYVelocity();
+                    if (Math.abs(vx) > minFlingVelocity || Math.abs(vy) > minFlingVelocity)
+                        fling(-vx, -vy);
+                }
+                endScroll();
+            }
+            break;
+            case MotionEvent.ACTION_CANCEL: {
+                endScroll();
+            }
+            break;
+        }
+    }
+
+    private void endScroll() {
+        isDragging = false;
+        if (null != velocityTracker) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    /**
+     * fling the table while scrollable
+     *
+     * @param velocityX initial velocity in x-direction(px/s)
+     * @param velocityY initial velocity in y-direction(px/s)
+     */
+    public void fling(int velocityX, int velocityY) {
+        if (!scrollable)
+            return;
+
+        scroller.fling(getScrollX(), getScrollY(), velocityX, velocityY,
+                0, getMaxScrollX(), 0, getMaxScrollY());
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            scrollTo(scroller.getCurrX(), scroller.getCurrY());
+            ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    // scroll position is limited inside the table
+    @Override
+    public void scrollTo(int x, int y) {
+        x = Math.max(0, Math.min(x, getMaxScrollX()));
+        y = Math.max(0, Math.min(y, getMaxScrollY()));
+        if (x != getScrollX() || y != getScrollY())
+            super.scrollTo(x, y);
+    }
+
+    private int getMaxScrollX() {
+        return scrollable ? Math.max(0, tableWidth - getWidth()) : 0;
+    }
+
+    private int getMaxScrollY() {
+        return scrollable ? Math.max(0, tableHeight - getHeight()) : 0;
+    }
+
+    @Override
+    protected int computeHorizontalScrollRange() {
+        return scrollable ? tableWidth : super.computeHorizontalScrollRange();
+    }
+
+    @Override
+    protected int computeVerticalScrollRange() {
+        return scrollable ? tableHeight : super.computeVerticalScrollRange();
     }
 
     // get (merged)cell by x, y coordinate
     private Object getCellByXY(float x, float y) {
-        // traverse merged cells
-        if (null != mergeInfoList && mergeInfoList.size() > 0) {
-            int size = mergeInfoList.size();
-            for (int i = 0; i < size; i++) {
-                MergeInfo mergeInfo = mergeInfoList.get(i);
-                if (mergeInfo.startX <= x && x <= mergeInfo.startX + mergeInfo.width &&
-                        mergeInfo.startY <= y && y <= mergeInfo.startY + mergeInfo.height)
-                    return mergeInfo;
+        if (!layoutValid)
+            initData();
+
+        if (!isInTable(x, y))
+            return null;
+
+        // the merged cell covering the cell has priority
+        int row = getRowByY(y);
+        int line = getLineByX(x);
+        MergeInfo mergeInfo = mergeIndex.get(cellKey(row, line));
+        if (null != mergeInfo)
+            return mergeInfo;
+        if (null != adapter)
+            return getCell(row, line);
+
+        // a copy may be handed out, such as while cells are packed or the cell is empty
+        CellInfo cellInfo = cellStore.export(row, line);
+        layoutCell(cellInfo, row, line);
+        return cellInfo;
+    }
+
+    // get the cell at row and line, bound from the adapter on demand while it is set
+    private CellInfo getCell(int row, int line) {
+        if (null == adapter) {
+            CellInfo cellInfo = cellStore.get(row, line);
+            if (cellInfo.readOnly)
+                layoutCell(cellInfo, row, line);
+            return cellInfo;
+        }
+
+        long key = cellKey(row, line);
+        CellInfo cellInfo = boundCells.get(key);
+        if (null == cellInfo) {
+            cellInfo = bindCell(row, line);
+            fitBoundCell(cellInfo, row, line);
+            layoutCell(cellInfo, row, line);
+            boundCells.put(key, cellInfo);
+            boundCellList.add(cellInfo);
+        }
+        return cellInfo;
+    }
+
+    // bind a new cell from the adapter
+    private CellInfo bindCell(int row, int line) {
+        CellInfo cellInfo = cellRecycler.obtain();
+        adapter.onBindCell(cellInfo, row, line);
+        cellInfo.parent = this;
+        fillTextAttrs(cellInfo);
+        return cellInfo;
+    }
+
+    // grow the measured line and row of a bound cell larger than them, so that a line or row
+    // measured by its first cell still fits later ones, they are laid out again before the next drawing
+    private void fitBoundCell(CellInfo cellInfo, int row, int line) {
+        boolean grown = false;
+        if (null != measuredLines && measuredLines.get(line)) {
+            float width = measureCellWidth(cellInfo);
+            if (width > widthArr[line]) {
+                widthArr[line] = width;
+                invalidateLinesLayout(line, lines);
+                grown = true;
             }
         }
+        if (null != measuredRows && measuredRows.get(row)) {
+            float height = measureCellHeight(cellInfo);
+            if (height > heightArr[row]) {
+                heightArr[row] = height;
+                invalidateRowsLayout(row, rows);
+                grown = true;
+            }
+        }
+        if (grown) {
+            requestLayout();
+            invalidate();
+        }
+    }
 
-        // traverse cells
-        for (int r = 0; r < rows; r++)
-            for (int l = 0; l < lines; l++)
-                if (cellArr[r][l].startX <= x && x <= cellArr[r][l].startX + cellArr[r][l].width &&
-                        cellArr[r][l].startY <= y && y <= cellArr[r][l].startY + cellArr[r][l].height)
-                    return cellArr[r][l];
+    // put a bound cell back to the pool, except the touched one, which is
+    // still handed out to listeners while the gesture ends
+    private void releaseBoundCell(CellInfo cellInfo) {
+        if (cellInfo != curTouchCell)
+            cellRecycler.recycle(cellInfo);
+    }
+
+    // release bound cells out of the visible range, except cells of the header row and line
+    // in the visible range, only while there are much more bound cells than visible ones
+    private void trimBoundCells() {
+        int size = boundCellList.size();
+        int visibleCells = (visibleEndRow - visibleStartRow + 2) * (visibleEndLine - visibleStartLine + 2);
+        if (size <= 2 * visibleCells)
+            return;
+
+        for (int i = size - 1; i >= 0; i--) {
+            CellInfo cellInfo = boundCellList.get(i);
+            boolean rowVisible = cellInfo.row == 0 ||
+                    (cellInfo.row >= visibleStartRow && cellInfo.row <= visibleEndRow);
+            boolean lineVisible = cellInfo.line == 0 ||
+                    (cellInfo.line >= visibleStartLine && cellInfo.line <= visibleEndLine);
+            if ((rowVisible && lineVisible) || cellInfo == curTouchCell)
+                continue;
+
+            boundCells.remove(cellKey(cellInfo.row, cellInfo.line));
+            // the last one is moved here so that nothing is shifted
+            int last = boundCellList.size() - 1;
+            boundCellList.set(i, boundCellList.get(last));
+            boundCellList.remove(last);
+            releaseBoundCell(cellInfo);
+        }
+    }
+
+    private void clearBoundCells() {
+        int size = boundCellList.size();
+        for (int i = 0; i < size; i++)
+            releaseBoundCell(boundCellList.get(i));
+        boundCells.clear();
+        boundCellList.clear();
+    }
+
+    // x-coordinate in the table of x-coordinate in the view,
+    // taking scroll position and the frozen header line into account
+    private float toTableX(float x) {
+        if (!layoutValid)
+            initData();
+        if (scrollable && headersFrozen && lines > 0 && x <= lineOffsets[1])
+            return x;
+        return x + getScrollX();
+    }
+
+    // y-coordinate in the table of y-coordinate in the view,
+    // taking scroll position and the frozen header row into account
+    private float toTableY(float y) {
+        if (!layoutValid)
+            initData();
+        if (scrollable && headersFrozen && rows > 0 && y <= rowOffsets[1])
+            return y;
+        return y + getScrollY();
+    }
+
+    // whether x, y coordinate is inside the cells of table
+    private boolean isInTable(float x, float y) {
+        return rows > 0 && lines > 0 &&
+                lineOffsets[0] <= x && x <= lineOffsets[lines] &&
+                rowOffsets[0] <= y && y <= rowOffsets[rows];
+    }
+
+    /**
+     * get row and line of the cell at x, y coordinate, merged cells are not
+     * taken into account, the cell under a merged cell will be found,
+     * scroll position of the table and frozen headers are taken into account
+     *
+     * @param x          x-coordinate relative to the table view
+     * @param y          y-coordinate relative to the table view
+     * @param outRowLine array with size of at least 2, receiving row and line of the cell
+     * @return true if a cell is found, false if x, y coordinate is out of the table
+     */
+    public boolean getCellAt(float x, float y, int[] outRowLine) {
+        if (!layoutValid)
+            initData();
+
+        x = toTableX(x);
+        y = toTableY(y);
+        if (!isInTable(x, y))
+            return false;
+
+        outRowLine[0] = getRowByY(y);
+        outRowLine[1] = getLineByX(x);
+        return true;
+    }
+
+    /**
+     * get the laid out cell at row and line, merged cells are not taken into account,
+     * a copy may be returned, such as while cells are packed or the cell is empty
+     *
+     * @param row  shown row, between 0 to rows-1
+     * @param line line, between 0 to lines-1
+     * @return the cell, or null if row or line is out of the table
+     */
+    public CellInfo getCellInfo(int row, int line) {
+        if (row < 0 || row >= rows || line < 0 || line >= lines)
+            return null;
+        if (!layoutValid)
+            initData();
+        if (null != adapter)
+            return getCell(row, line);
+
+        CellInfo cellInfo = cellStore.export(row, line);
+        layoutCell(cellInfo, row, line);
+        return cellInfo;
+    }
+
+    /**
+     * @param row shown row, between 0 to rows-1
+     * @return height of the row(px)
+     */
+    public float getRowHeight(int row) {
+        return heightArr[row];
+    }
+
+    /**
+     * @param line line, between 0 to lines-1
+     * @return width of the line(px)
+     */
+    public float getLineWidth(int line) {
+        return widthArr[line];
+    }
+
+    public TableAdapter getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * set the adapter as data source instead of data list, cells are bound only
+     * while they are about to be drawn or hit, and released while they are far
+     * from the visible cells, this will clear the original data including data
+     * of merged cells, structure of the table can not be changed by adding or
+     * removing rows and lines, see {@link #notifyDataSetChanged()}, note that
+     * RENDER_MODE_PICTURE records every cell, which is not suitable for the adapter
+     *
+     * @param adapter adapter, or null to clear the table
+     */
+    public void setAdapter(TableAdapter adapter) {
+        this.adapter = adapter;
+        if (null == adapter) {
+            rows = 0;
+            lines = 0;
+            resetTableData();
+            requestLayout();
+            invalidate();
+        } else {
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * rows, lines or size of them in the adapter are changed, all cells are bound again,
+     * merged cells are cleared, lines and rows without size hints are measured by their first
+     * cells, and grown while a larger cell of them is bound, then laid out again
+     */
+    public void notifyDataSetChanged() {
+        if (null == adapter)
+            return;
+
+        rows = adapter.getRowCount();
+        lines = adapter.getLineCount();
+        resetTableData();
+
+        // width of each line, by the size hint or the cell in the first row,
+        // a measured line is grown while a wider cell of it is bound
+        if (mode != MODE_FIX_WIDTH && mode != MODE_FIX_WIDTH_HEIGHT) {
+            for (int l = 0; l < lines; l++) {
+                float width = adapter.getLineWidth(l);
+                if (width < 0 && rows > 0) {
+                    if (null == measuredLines)
+                        measuredLines = new RowBitSet(lines);
+                    measuredLines.set(l);
+                    CellInfo cellInfo = bindCell(0, l);
+                    width = measureCellWidth(cellInfo);
+                    cellRecycler.recycle(cellInfo);
+                }
+                if (l == 0 || l == lines - 1)
+                    width = width >= outStrokeCorner ? width : outStrokeCorner;
+                widthArr[l] = width;
+            }
+        }
+
+        // height of each row, by the size hint or the cell in the first line,
+        // a measured row is grown while a higher cell of it is bound
+        if (mode != MODE_FIX_HEIGHT && mode != MODE_FIX_WIDTH_HEIGHT) {
+            for (int r = 0; r < rows; r++) {
+                float height = adapter.getRowHeight(r);
+                if (height < 0 && lines > 0) {
+                    if (null == measuredRows)
+                        measuredRows = new RowBitSet(rows);
+                    measuredRows.set(r);
+                    CellInfo cellInfo = bindCell(r, 0);
+                    height = measureCellHeight(cellInfo);
+                    cellRecycler.recycle(cellInfo);
+                }
+                if (r == 0 || r == rows - 1)
+                    height = height >= outStrokeCorner ? height : outStrokeCorner;
+                heightArr[r] = height;
+            }
+        }
+
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * data of the cell in the adapter is changed, the cell is bound again
+     * and only its area is redrawn, size of the cell should not be changed
+     *
+     * @param row  row of the cell
+     * @param line line of the cell
+     */
+    public void notifyCellChanged(int row, int line) {
+        if (null == adapter || row < 0 || row >= rows || line < 0 || line >= lines)
+            return;
+
+        CellInfo cellInfo = boundCells.remove(cellKey(row, line));
+        if (null != cellInfo) {
+            boundCellList.remove(cellInfo);
+            releaseBoundCell(cellInfo);
+        }
+        trimStyles();
+
+        if (layoutValid)
+            invalidateArea(lineOffsets[line], rowOffsets[row], lineOffsets[line + 1], rowOffsets[row + 1]);
+        else
+            invalidate();
+    }
+
+    // width of a cell, set by width value or calculated by width of texts
+    private float measureCellWidth(CellInfo cellInfo) {
+        if (cellInfo.width >= 0 || null == cellInfo.texts)
+            return Math.max(cellInfo.width, 0.0f);
+
+        return measureTextsWidth(cellInfo);
+    }
+
+    // max width of texts of a cell, widths are cached into the cell unless it is read-only
+    private float measureTextsWidth(CellInfo cellInfo) {
+        CellStyle style = stylePool.get(cellInfo.styleId);
+        float maxWidth = 0.0f;
+        int textRows = cellInfo.texts.length;
+        if (cellInfo.readOnly) {
+            for (int t = 0; t < textRows; t++)
+                maxWidth = Math.max(maxWidth, textWidthCache.getWidth(cellInfo.texts[t], style.getTextSize(t), style.getTypeface()));
+            return maxWidth;
+        }
+
+        cellInfo.textWidths = textWidthCache.getWidths(cellInfo.texts, style, cellInfo.textWidths);
+        for (int t = 0; t < textRows; t++)
+            if (maxWidth < cellInfo.textWidths[t])
+                maxWidth = cellInfo.textWidths[t];
+        return maxWidth;
+    }
+
+    // height of a cell, set by height value or calculated by height of texts
+    private float measureCellHeight(CellInfo cellInfo) {
+        if (cellInfo.height >= 0 || null == cellInfo.texts)
+            return Math.max(cellInfo.height, 0.0f);
 
-        return null;
+        float height = 0.0f;
+        CellStyle style = stylePool.get(cellInfo.styleId);
+        for (int t = 0; t < cellInfo.texts.length; t++)
+            height += fontMetricsCache.getLineHeight(style.getTypeface(), style.getTextSize(t));
+        return height;
     }
 
     /**
@@ -768,13 +1960,23 @@ public class EasyTableView extends View {
     public void setData(ArrayList<CellInfo> cellInfoList) {
         if (null == cellInfoList || cellInfoList.size() <= 0)
             return;
+        keepCells(cellInfoList);
 
-        // clear original data
-        for (int r = 0; r < rows; r++)
-            for (int l = 0; l < lines; l++)
-                cellArr[r][l] = new CellInfo();
-        if (null != mergeInfoList && mergeInfoList.size() > 0)
-            mergeInfoList.clear();
+        // data list takes the place of the adapter
+        if (null != adapter) {
+            adapter = null;
+            resetTableData();
+        }
+
+        // all rows are shown again, so that heights of hidden rows are not kept,
+        // and sorts and filters started with the original data are dropped
+        clearRowFilter();
+
+        // clear original data, with styles referenced by it
+        cellStore.reset(rows, lines);
+        clearMergedCells();
+        stylePool.clear();
+        styleTrimSize = MIN_STYLE_TRIM_SIZE;
 
         // set new data
         int size = cellInfoList.size();
@@ -784,36 +1986,31 @@ public class EasyTableView extends View {
 
             // ignore data not in table size
             if (cellInfo.row < rows && cellInfo.line < lines) {
-                cellArr[cellInfo.row][cellInfo.line] = cellInfo;
                 fillTextAttrs(cellInfo);
+                cellStore.set(cellInfo.row, cellInfo.line, cellInfo);
             }
         }
 
         // calculate max width of each line
         int textRows;
         if (mode != MODE_FIX_WIDTH && mode != MODE_FIX_WIDTH_HEIGHT) {
-            float txtWidth;
+            CellInfo cellInfo;
             float maxWidth;
             float fixMaxWidth;
             for (int l = 0; l < lines; l++) {
                 maxWidth = 0.0f;
                 fixMaxWidth = -1;
                 for (int r = 0; r < rows; r++) {
-                    if (null != cellArr[r][l].texts) {
-                        if (cellArr[r][l].width < 0) { // calculate by width of texts
-                            textRows = cellArr[r][l].texts.length;
-                            for (int t = 0; t < textRows; t++) {
-                                textPaint.setTextSize(cellArr[r][l].textSizes[t]);
-                                txtWidth = textPaint.measureText(cellArr[r][l].texts[t]);
-                                if (maxWidth < txtWidth)
-                                    maxWidth = txtWidth;
-                            }
+                    cellInfo = cellStore.get(r, l);
+                    if (null != cellInfo.texts) {
+                        if (cellInfo.width < 0) { // calculate by width of texts
+                            maxWidth = Math.max(maxWidth, measureTextsWidth(cellInfo));
                         } else { // set by width value
-                            if (fixMaxWidth < cellArr[r][l].width)
-                                fixMaxWidth = cellArr[r][l].width;
+                            if (fixMaxWidth < cellInfo.width)
+                                fixMaxWidth = cellInfo.width;
                         }
-                    } else if (fixMaxWidth < cellArr[r][l].width) { // set by width value while no texts found
-                        fixMaxWidth = cellArr[r][l].width;
+                    } else if (fixMaxWidth < cellInfo.width) { // set by width value while no texts found
+                        fixMaxWidth = cellInfo.width;
                     }
                 }
                 if (fixMaxWidth != -1)
@@ -828,8 +2025,8 @@ public class EasyTableView extends View {
 
         // calculate max height of each row
         if (mode != MODE_FIX_HEIGHT && mode != MODE_FIX_WIDTH_HEIGHT) {
-            Paint.FontMetrics fm;
-            float txtHeight;
+            CellInfo cellInfo;
+            CellStyle style;
             float tempHeight;
             float maxHeight;
             float fixMaxHeight;
@@ -837,25 +2034,23 @@ public class EasyTableView extends View {
                 maxHeight = 0.0f;
                 fixMaxHeight = -1;
                 for (int l = 0; l < lines; l++) {
-                    if (null != cellArr[r][l].texts) {
-                        if (cellArr[r][l].height < 0) { // calculate by height of texts
+                    cellInfo = cellStore.get(r, l);
+                    if (null != cellInfo.texts) {
+                        if (cellInfo.height < 0) { // calculate by height of texts
                             tempHeight = 0.0f;
-                            textRows = cellArr[r][l].texts.length;
-                            for (int t = 0; t < textRows; t++) {
-                                textPaint.setTextSize(cellArr[r][l].textSizes[t]);
-                                fm = textPaint.getFontMetrics();
-                                txtHeight = fm.bottom - fm.top;
-                                tempHeight += txtHeight;
-                            }
+                            textRows = cellInfo.texts.length;
+                            style = stylePool.get(cellInfo.styleId);
+                            for (int t = 0; t < textRows; t++)
+                                tempHeight += fontMetricsCache.getLineHeight(style.getTypeface(), style.getTextSize(t));
 
                             if (maxHeight < tempHeight)
                                 maxHeight = tempHeight;
                         } else { // set by height value
-                            if (fixMaxHeight < cellArr[r][l].height)
-                                fixMaxHeight = cellArr[r][l].height;
+                            if (fixMaxHeight < cellInfo.height)
+                                fixMaxHeight = cellInfo.height;
                         }
-                    } else if (fixMaxHeight < cellArr[r][l].height) { // set by height value while no texts found
-                        fixMaxHeight = cellArr[r][l].height;
+                    } else if (fixMaxHeight < cellInfo.height) { // set by height value while no texts found
+                        fixMaxHeight = cellInfo.height;
                     }
                 }
                 if (fixMaxHeight != -1)
@@ -868,6 +2063,7 @@ public class EasyTableView extends View {
             }
         }
 
+        invalidateLayout();
         requestLayout();
         invalidate();
     }
@@ -881,12 +2077,24 @@ public class EasyTableView extends View {
      * @param cellInfoList data list
      */
     public void setData(int rows, int lines, ArrayList<CellInfo> cellInfoList) {
+        if (null != cellInfoList)
+            keepCells(cellInfoList);
+        adapter = null;
         this.rows = rows;
         this.lines = lines;
         resetTableData();
         setData(cellInfoList);
     }
 
+    /**
+     * cells passed in by users are kept by them, even cells created by the table, such as
+     * a clicked empty cell, so they are not recycled while the original data is cleared
+     */
+    private static void keepCells(List<CellInfo> cellInfoList) {
+        for (int i = 0, size = cellInfoList.size(); i < size; i++)
+            cellInfoList.get(i).recyclable = false;
+    }
+
     /**
      * update data, for now, only set the width and height of each line and row
      * to the last CellInfo of the data list
@@ -899,42 +2107,91 @@ public class EasyTableView extends View {
 
     /**
      * update data, for now, only set the width and height of each line and row
-     * to the last CellInfo of the data list
+     * to the last CellInfo of the data list, if width and height of lines and rows
+     * are not changed, only the updated cells are redrawn, without layout.
+     * While rows are filtered by {@link #filterRows(RowFilter)}, row of cells is the
+     * shown row, such as the clicked cell, and the filter is kept without evaluating it again
      *
      * @param cellInfoList data list that need to update
      */
     public void updateData(List<CellInfo> cellInfoList) {
+        // cells of the adapter are updated by notifyCellChanged
+        if (null != adapter)
+            return;
+        keepCells(cellInfoList);
+
+        // sorts and filters started with the original texts are dropped, while the shown
+        // rows are kept, cells are written through the filter into rows of the whole table
+        ++rowsGeneration;
+
         float w;
         float h;
+        // the first line and row whose size is changed, lines and rows from them are shifted
+        int changedLine = Integer.MAX_VALUE;
+        int changedRow = Integer.MAX_VALUE;
+        // width or height of cells is ignored once laid out in the fixed mode
+        boolean fixWidth = layoutValid && (mode == MODE_FIX_WIDTH || mode == MODE_FIX_WIDTH_HEIGHT);
+        boolean fixHeight = layoutValid && (mode == MODE_FIX_HEIGHT || mode == MODE_FIX_WIDTH_HEIGHT);
         for (CellInfo cellInfo : cellInfoList) {
             if (cellInfo.row < rows && cellInfo.line < lines) {
-                cellArr[cellInfo.row][cellInfo.line] = cellInfo;
                 cellInfo.parent = this;
+                fillTextAttrs(cellInfo);
+                cellStore.set(cellInfo.row, cellInfo.line, cellInfo);
 
                 w = cellInfo.width;
-                if (cellArr[0].length == 1 && cellInfo.width < 2.0f * outStrokeCorner)
+                if (lines == 1 && cellInfo.width < 2.0f * outStrokeCorner)
                     w = 2.0f * outStrokeCorner;
                 else if ((cellInfo.line == 0 || cellInfo.line == lines - 1) && cellInfo.width < outStrokeCorner)
                     w = outStrokeCorner;
 
                 h = cellInfo.height;
-                if (cellArr.length == 1 && cellInfo.height < 2.0f * outStrokeCorner)
+                if (rows == 1 && cellInfo.height < 2.0f * outStrokeCorner)
                     h = 2.0f * outStrokeCorner;
                 else if ((cellInfo.row == 0 || cellInfo.row == rows - 1) && cellInfo.height < outStrokeCorner)
                     h = outStrokeCorner;
 
-                widthArr[cellInfo.line] = w;
-                heightArr[cellInfo.row] = h;
-                fillTextAttrs(cellInfo);
+                if (!fixWidth && widthArr[cellInfo.line] != w) {
+                    widthArr[cellInfo.line] = w;
+                    changedLine = Math.min(changedLine, cellInfo.line);
+                }
+                if (!fixHeight && heightArr[cellInfo.row] != h) {
+                    heightArr[cellInfo.row] = h;
+                    changedRow = Math.min(changedRow, cellInfo.row);
+                }
+            }
+        }
+        // styles replaced by the updates are released
+        trimStyles();
+
+        // cells of the resized lines and rows and the ones shifted by them are laid out again
+        if (changedLine < lines)
+            invalidateLinesLayout(changedLine, lines);
+        if (changedRow < rows)
+            invalidateRowsLayout(changedRow, rows);
+
+        if (!layoutValid) {
+            // the updated cells are laid out before the next drawing, copies of packed cells are not
+            if (cellStore.keepsInstances())
+                for (CellInfo cellInfo : cellInfoList)
+                    if (cellInfo.row < rows && cellInfo.line < lines)
+                        pendingLayoutCells.add(cellInfo);
+            if (changedLine < lines || changedRow < rows)
+                requestLayout();
+            invalidate();
+        } else {
+            // size of rows and lines is not changed, only updated cells are laid out and redrawn
+            for (CellInfo cellInfo : cellInfoList) {
+                if (cellInfo.row < rows && cellInfo.line < lines) {
+                    layoutCell(cellInfo, cellInfo.row, cellInfo.line);
+                    invalidateCell(cellInfo);
+                }
             }
         }
-
-        requestLayout();
-        invalidate();
     }
 
     /**
-     * update merged cells, only add as new MergeInfo
+     * update merged cells, add as new MergeInfo if not merged yet,
+     * data overlapping other merged cells will be ignored
      *
      * @param mergeInfos merged data list that need to update
      */
@@ -943,18 +2200,29 @@ public class EasyTableView extends View {
     }
 
     /**
-     * update merged cells, only add as new MergeInfo
+     * update merged cells, add as new MergeInfo if not merged yet,
+     * data overlapping other merged cells will be ignored, only the
+     * updated merged cells are redrawn, without layout
      *
      * @param mergeInfoList merged data list that need to update
      */
     public void updateMergeData(List<MergeInfo> mergeInfoList) {
         for (MergeInfo mergeInfo : mergeInfoList) {
+            // ignore the illegal data, and data overlapping other merged cells
+            if (!isMerged(mergeInfo) && (!isLegalMergedCell(mergeInfo) || !addMergedCell(mergeInfo)))
+                continue;
+
             fillMergeTextAttrs(mergeInfo);
-            this.mergeInfoList.add(mergeInfo);
+            // size of rows and lines is not changed by merged cells
+            if (layoutValid) {
+                layoutMergedCell(mergeInfo);
+                invalidateMergedCell(mergeInfo);
+            }
         }
+        trimStyles();
 
-        requestLayout();
-        invalidate();
+        if (!layoutValid)
+            invalidate();
     }
 
     /**
@@ -964,10 +2232,10 @@ public class EasyTableView extends View {
      * @param newRows   rows num added
      * @param height    height of new rows(px), using default ADD_ROWS_DEFAULT_HEIGHT while less than 0
      * @param direction ADD_ROWS_TOP or ADD_ROWS_BOTTOM
-     * @return true if success, false if failed
+     * @return true if success, false if failed, the adapter is set or rows are filtered
      */
     public boolean addNewRows(int curRow, int newRows, float height, int direction) {
-        if (newRows <= 0)
+        if (newRows <= 0 || null != adapter || isRowsFiltered())
             return false;
 
         if (curRow < 0)
@@ -981,36 +2249,20 @@ public class EasyTableView extends View {
         if (height < 0)
             height = ADD_ROWS_DEFAULT_HEIGHT;
 
-        // copy original data to new list with growing rows
-        CellInfo[][] tCellArr = new CellInfo[rows + newRows][lines];
-        float[] tHeightArr = new float[rows + newRows];
-        for (int r = 0; r <= curRow; r++) {
-            tCellArr[r] = Arrays.copyOf(cellArr[r], lines);
-            tHeightArr[r] = heightArr[r];
-        }
-        for (int r = curRow + 1; r <= curRow + newRows; r++) {
-            tCellArr[r] = new CellInfo[lines];
-            tHeightArr[r] = height;
-
-            for (int l = 0; l < lines; l++)
-                tCellArr[r][l] = new CellInfo();
-        }
-        for (int r = curRow + newRows + 1; r < rows + newRows; r++) {
-            tCellArr[r] = Arrays.copyOf(cellArr[r - newRows], lines);
-            tHeightArr[r] = heightArr[r - newRows];
-        }
-
-        // release the original data
-        for (int r = 0; r < rows; r++)
-            for (int l = 0; l < lines; l++)
-                cellArr[r][l] = null;
-        heightArr = null;
+        // grow the height list only while its capacity is not enough,
+        // then shift heights of the following rows
+        if (heightArr.length < rows + newRows)
+            heightArr = Arrays.copyOf(heightArr, Math.max(rows + newRows, rows * 3 / 2));
+        System.arraycopy(heightArr, curRow + 1, heightArr, curRow + 1 + newRows, rows - curRow - 1);
+        Arrays.fill(heightArr, curRow + 1, curRow + 1 + newRows, height);
+        cellStore.applyRowOrder();
+        cellStore.insertRows(curRow + 1, newRows);
+        ++rowsGeneration;
 
         rows += newRows;
 
-        cellArr = tCellArr;
-        heightArr = tHeightArr;
-
+        // only the new rows and rows below them are laid out again
+        invalidateRowsLayout(curRow + 1, rows);
         requestLayout();
         invalidate();
 
@@ -1022,43 +2274,32 @@ public class EasyTableView extends View {
      *
      * @param start starting row, between 0 to rows-1
      * @param end   ending row, between 0 to rows-1
-     * @return true if success, false if failed
+     * @return true if success, false if failed, the adapter is set or rows are filtered
      */
     public boolean removeRows(int start, int end) {
         int rowsToDel = end - start + 1;
-        if (rowsToDel <= 0 || rowsToDel >= rows || start < 0 || end >= rows)
+        if (null != adapter || isRowsFiltered() || rowsToDel <= 0 || rowsToDel >= rows || start < 0 || end >= rows)
             return false;
 
-        // copy original data to new list with reducing rows
-        // and remove the corresponding data
+        // shift heights of the following rows and remove the corresponding data,
+        // the capacity of the height list is kept
         int newRows = rows - rowsToDel;
-        CellInfo[][] tCellArr = new CellInfo[newRows][lines];
-        float[] tHeightArr = new float[newRows];
-        for (int r = 0; r < start; r++) {
-            tCellArr[r] = Arrays.copyOf(cellArr[r], lines);
-            tHeightArr[r] = heightArr[r];
-        }
-        for (int r = end + 1; r < rows; r++) {
-            tCellArr[r - rowsToDel] = Arrays.copyOf(cellArr[r], lines);
-            tHeightArr[r - rowsToDel] = heightArr[r];
-        }
+        System.arraycopy(heightArr, end + 1, heightArr, start, rows - end - 1);
+        cellStore.applyRowOrder();
+        cellStore.removeRows(start, end);
+        ++rowsGeneration;
 
         // cell's height can not be less than 2*outStrokeCorner
         // while having only 1 row
-        if (newRows == 1 && tHeightArr[0] < 2.0f * outStrokeCorner)
-            tHeightArr[0] = 2.0f * outStrokeCorner;
-
-        // release the original data
-        for (int r = 0; r < rows; r++)
-            for (int l = 0; l < lines; l++)
-                cellArr[r][l] = null;
-        heightArr = null;
+        if (newRows == 1 && heightArr[0] < 2.0f * outStrokeCorner) {
+            heightArr[0] = 2.0f * outStrokeCorner;
+            start = 0;
+        }
 
         rows = newRows;
 
-        cellArr = tCellArr;
-        heightArr = tHeightArr;
-
+        // only rows below the removed ones are laid out again
+        invalidateRowsLayout(start, rows);
         requestLayout();
         invalidate();
 
@@ -1072,10 +2313,10 @@ public class EasyTableView extends View {
      * @param newLines  lines num added
      * @param width     width of new lines(px), using default ADD_LINES_DEFAULT_WIDTH while less than 0
      * @param direction ADD_LINES_LEFT or ADD_LINES_RIGHT
-     * @return true if success, false if failed
+     * @return true if success, false if failed or the adapter is set
      */
     public boolean addNewLines(int curLine, int newLines, float width, int direction) {
-        if (newLines <= 0)
+        if (newLines <= 0 || null != adapter)
             return false;
 
         if (curLine < 0)
@@ -1089,38 +2330,19 @@ public class EasyTableView extends View {
         if (width < 0)
             width = ADD_LINES_DEFAULT_WIDTH;
 
-        // copy original data to new list with growing lines
-        CellInfo[][] tCellArr = new CellInfo[rows][lines + newLines];
-        float[] tWidthArr = new float[lines + newLines];
-        for (int r = 0; r < rows; r++) {
-            tCellArr[r] = new CellInfo[lines + newLines];
-            for (int l = 0; l <= curLine; l++)
-                tCellArr[r][l] = cellArr[r][l];
-            for (int l = curLine + 1; l <= curLine + newLines; l++)
-                tCellArr[r][l] = new CellInfo();
-            for (int l = curLine + newLines + 1; l < lines + newLines; l++)
-                tCellArr[r][l] = cellArr[r][l - newLines];
-        }
-
-        // width of each line should be set once
-        for (int l = 0; l <= curLine; l++)
-            tWidthArr[l] = widthArr[l];
-        for (int l = curLine + 1; l <= curLine + newLines; l++)
-            tWidthArr[l] = width;
-        for (int l = curLine + newLines + 1; l < lines + newLines; l++)
-            tWidthArr[l] = widthArr[l - newLines];
-
-        // release the original data
-        for (int r = 0; r < rows; r++)
-            for (int l = 0; l < lines; l++)
-                cellArr[r][l] = null;
-        widthArr = null;
+        // grow the width list only while its capacity is not enough,
+        // then shift widths of the following lines
+        if (widthArr.length < lines + newLines)
+            widthArr = Arrays.copyOf(widthArr, Math.max(lines + newLines, lines * 3 / 2));
+        System.arraycopy(widthArr, curLine + 1, widthArr, curLine + 1 + newLines, lines - curLine - 1);
+        Arrays.fill(widthArr, curLine + 1, curLine + 1 + newLines, width);
+        cellStore.insertLines(curLine + 1, newLines);
+        ++rowsGeneration;
 
         lines += newLines;
 
-        cellArr = tCellArr;
-        widthArr = tWidthArr;
-
+        // only the new lines and lines right of them are laid out again
+        invalidateLinesLayout(curLine + 1, lines);
         requestLayout();
         invalidate();
 
@@ -1132,145 +2354,411 @@ public class EasyTableView extends View {
      *
      * @param start starting line, between 0 to lines-1
      * @param end   ending line, between 0 to lines-1
-     * @return true if success, false if failed
+     * @return true if success, false if failed or the adapter is set
      */
     public boolean removeLines(int start, int end) {
         int linesToDel = end - start + 1;
-        if (linesToDel <= 0 || linesToDel >= lines || start < 0 || end >= lines)
+        if (null != adapter || linesToDel <= 0 || linesToDel >= lines || start < 0 || end >= lines)
             return false;
 
-        // copy original data to new list with reducing lines
-        // and remove the corresponding data
+        // shift widths of the following lines and remove the corresponding data,
+        // the capacity of the width list is kept
         int newLines = lines - linesToDel;
-        CellInfo[][] tCellArr = new CellInfo[rows][newLines];
-        float[] tWidthArr = new float[newLines];
-        for (int r = 0; r < rows; r++) {
-            tCellArr[r] = new CellInfo[newLines];
-            for (int l = 0; l < start; l++)
-                tCellArr[r][l] = cellArr[r][l];
-            for (int l = end + 1; l < lines; l++)
-                tCellArr[r][l - linesToDel] = cellArr[r][l];
-        }
-
-        // width of each line should be set once
-        for (int l = 0; l < start; l++)
-            tWidthArr[l] = widthArr[l];
-        for (int l = end + 1; l < lines; l++)
-            tWidthArr[l - linesToDel] = widthArr[l];
+        System.arraycopy(widthArr, end + 1, widthArr, start, lines - end - 1);
+        cellStore.removeLines(start, end);
+        ++rowsGeneration;
 
         // cell's width can not be less than 2*outStrokeCorner
         // while having only 1 line
-        if (newLines == 1 && tWidthArr[0] < 2.0f * outStrokeCorner)
-            tWidthArr[0] = 2.0f * outStrokeCorner;
-
-        // release the original data
-        for (int r = 0; r < rows; r++)
-            for (int l = 0; l < lines; l++)
-                cellArr[r][l] = null;
-        widthArr = null;
+        if (newLines == 1 && widthArr[0] < 2.0f * outStrokeCorner) {
+            widthArr[0] = 2.0f * outStrokeCorner;
+            start = 0;
+        }
 
         lines = newLines;
 
-        cellArr = tCellArr;
-        widthArr = tWidthArr;
-
+        // only lines right of the removed ones are laid out again
+        invalidateLinesLayout(start, lines);
         requestLayout();
         invalidate();
 
         return true;
     }
 
-    // fill the attributes of cells, including textColors and textSizes,
-    // note that if textColor is set, textColors will be covered,
-    // the same with textSize and textSizes
-    private void fillTextAttrs(CellInfo cellInfo) {
-        if (null != cellInfo.texts && cellInfo.texts.length > 0) {
-            if (cellInfo.textColor == 0 && null == cellInfo.textColors) // both textColor and textColors are not set
-                cellInfo.textColor = Color.BLACK;
-            if (cellInfo.textColor != 0) { // cover textColors if textColor is set
-                cellInfo.textColors = new int[cellInfo.texts.length];
-                for (int t = 0; t < cellInfo.texts.length; t++)
-                    cellInfo.textColors[t] = cellInfo.textColor;
-            }
+    /**
+     * move several lines with their data and widths, lines between the original
+     * and the new position are shifted, merged cells are kept at their positions
+     *
+     * @param from  starting line to move, between 0 to lines-1
+     * @param to    starting line after moving, between 0 to lines-count
+     * @param count lines num moved
+     * @return true if success, false if failed or the adapter is set
+     */
+    public boolean moveLines(int from, int to, int count) {
+        if (null != adapter || count <= 0 || from < 0 || to < 0 || from + count > lines || to + count > lines)
+            return false;
+        if (from == to)
+            return true;
 
-            if (cellInfo.textSize == -1 && null == cellInfo.textSizes) // both textSize and textSizes are not set
-                cellInfo.textSize = spToPx(14);
-            if (cellInfo.textSize != -1) { // cover textSizes if textSize is set
-                cellInfo.textSizes = new int[cellInfo.texts.length];
-                for (int t = 0; t < cellInfo.texts.length; t++)
-                    cellInfo.textSizes[t] = cellInfo.textSize;
-            }
-        }
-    }
+        CellStore.moveRange(widthArr, from, to, count);
+        cellStore.moveLines(from, to, count);
+        ++rowsGeneration;
 
-    // fill the attributes of merged cells, including textColors and textSizes,
-    // note that if textColor is set, textColors will be covered,
-    // the same with textSize and textSizes
-    private void fillMergeTextAttrs(MergeInfo mergeInfo) {
-        if (null != mergeInfo.texts && mergeInfo.texts.length > 0) {
-            if (mergeInfo.textColor == 0 && null == mergeInfo.textColors) // both textColor and textColors are not set
-                mergeInfo.textColor = Color.BLACK;
-            if (mergeInfo.textColor != 0) { // cover textColors if textColor is set
-                mergeInfo.textColors = new int[mergeInfo.texts.length];
-                for (int t = 0; t < mergeInfo.texts.length; t++)
-                    mergeInfo.textColors[t] = mergeInfo.textColor;
-            }
+        // only the moved lines and lines shifted by them are laid out again
+        invalidateLinesLayout(Math.min(from, to), Math.max(from, to) + count);
+        invalidate();
 
-            if (mergeInfo.textSize == -1 && null == mergeInfo.textSizes) // both textSize and textSizes are not set
-                mergeInfo.textSize = spToPx(14);
-            if (mergeInfo.textSize != -1) { // cover textSizes if textSize is set
-                mergeInfo.textSizes = new int[mergeInfo.texts.length];
-                for (int t = 0; t < mergeInfo.texts.length; t++)
-                    mergeInfo.textSizes[t] = mergeInfo.textSize;
-            }
-        }
+        return true;
     }
 
     /**
-     * merge cells, data with illegal row or line will be ignored
-     *
-     * @param mergeInfos merged cells info list
+     * sort rows by texts of the line in natural order, see {@link #sortByLine(int, Comparator)}
      */
-    public void mergeCells(MergeInfo... mergeInfos) {
-        mergeCells(Arrays.asList(mergeInfos));
+    public boolean sortByLine(int line) {
+        return sortByLine(line, null);
     }
 
     /**
-     * merge cells, data with illegal row or line will be ignored
+     * sort rows by the first text line of cells in the line, the header row is kept at top.
+     * Texts are sorted on the sort executor, then rows are reordered on the main thread
+     * without moving cells, the result is dropped if data or rows are changed before
+     * it is applied, or another sort starts
      *
-     * @param mergeInfoList merged cells info list
+     * @param line       line sorted by, between 0 to lines-1
+     * @param comparator comparator of texts, or null for natural order,
+     *                   cells without texts are sorted last
+     * @return true if sorting is started, false if failed, the adapter is set, rows are
+     * filtered or any merged cell covers rows below the header row
      */
-    public void mergeCells(List<MergeInfo> mergeInfoList) {
-        if (null == mergeInfoList || mergeInfoList.size() == 0)
-            return;
+    public boolean sortByLine(int line, final Comparator<String> comparator) {
+        if (null != adapter || line < 0 || line >= lines || rows <= 2 || isRowsFiltered() ||
+                hasMergedRowsBelowHeader())
+            return false;
 
-        boolean merged = false;
-        int size = mergeInfoList.size();
-        for (int i = 0; i < size; i++) {
+        // texts below the header row are read from the snapshot on the executor
+        final CellStore.TextSnapshot snapshot = cellStore.snapshotTexts();
+        final int sortRows = rows;
+        final int sortLine = line;
+        final int generation = ++rowsGeneration;
+        getSortExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                String[] keys = new String[sortRows - 1];
+                for (int r = 1; r < sortRows; r++)
+                    keys[r - 1] = snapshot.firstText(r, sortLine);
+                final int[] order = sortOrder(keys, comparator);
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applySortOrder(order, generation);
+                    }
+                });
+            }
+        });
+        return true;
+    }
+
+    // displayed row of each new displayed row, with the header row kept,
+    // sorting is stable so rows with equal texts keep their order
+    private static int[] sortOrder(final String[] keys, final Comparator<String> comparator) {
+        Integer[] index = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            index[i] = i;
+        Arrays.sort(index, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                String key1 = keys[i1];
+                String key2 = keys[i2];
+                if (null == key1 || null == key2)
+                    return null == key1 ? (null == key2 ? 0 : 1) : -1;
+                return null == comparator ? key1.compareTo(key2) : comparator.compare(key1, key2);
+            }
+        });
+
+        int[] order = new int[keys.length + 1];
+        for (int i = 0; i < index.length; i++)
+            order[i + 1] = index[i] + 1;
+        return order;
+    }
+
+    // reorder rows on the main thread, while nothing is changed since the sort starts
+    private void applySortOrder(int[] order, int generation) {
+        if (generation != rowsGeneration || order.length != rows || isRowsFiltered() ||
+                hasMergedRowsBelowHeader())
+            return;
+
+        float[] tHeightArr = Arrays.copyOf(heightArr, rows);
+        for (int r = 0; r < rows; r++)
+            heightArr[r] = tHeightArr[order[r]];
+        cellStore.reorderRows(order);
+
+        // the header row is kept
+        invalidateRowsLayout(1, rows);
+        invalidate();
+    }
+
+    private boolean hasMergedRowsBelowHeader() {
+        int mergeInfoSize = mergeInfoList.size();
+        for (int i = 0; i < mergeInfoSize; i++)
+            if (mergeInfoList.get(i).endRow > 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * show only rows accepted by the filter, the header row is always shown. The filter is
+     * evaluated on the sort executor with a snapshot of texts, then shown rows are kept as
+     * a bit set on the main thread, hidden rows are not laid out or drawn at all, and
+     * {@link #getRows()} returns count of shown rows. The result is dropped if data or rows
+     * are changed before it is applied, or another filter starts, all rows are shown again
+     * while data is set, and shown rows are kept while data is updated
+     *
+     * @param filter filter of rows, evaluated with all rows including the hidden ones
+     * @return true if filtering is started, false if failed, the adapter is set
+     * or any merged cell covers rows below the header row
+     */
+    public boolean filterRows(final RowFilter filter) {
+        if (null != adapter || null == filter || cellStore.rows <= 1 || hasMergedRowsBelowHeader())
+            return false;
+
+        // texts of all rows are read from the snapshot on the executor
+        final CellStore.TextSnapshot snapshot = cellStore.snapshotTexts();
+        final int allRows = cellStore.rows;
+        final int allLines = lines;
+        final int generation = ++rowsGeneration;
+        getSortExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final RowBitSet shownRows = new RowBitSet(allRows);
+                shownRows.set(0);
+                String[] rowTexts = new String[allLines];
+                for (int r = 1; r < allRows; r++) {
+                    for (int l = 0; l < allLines; l++)
+                        rowTexts[l] = snapshot.firstText(r, l);
+                    if (filter.accept(r, rowTexts))
+                        shownRows.set(r);
+                }
+                shownRows.build();
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyRowFilter(shownRows, generation);
+                    }
+                });
+            }
+        });
+        return true;
+    }
+
+    // keep the shown rows on the main thread, while nothing is changed since the filter starts
+    private void applyRowFilter(RowBitSet shownRows, int generation) {
+        if (generation != rowsGeneration || shownRows.size() != cellStore.rows || hasMergedRowsBelowHeader())
+            return;
+
+        float[] allHeightArr = restoreUnfilteredHeights();
+        rows = shownRows.cardinality();
+        heightArr = new float[rows];
+        for (int r = 0; r < rows; r++)
+            heightArr[r] = allHeightArr[shownRows.select(r)];
+        unfilteredHeightArr = allHeightArr;
+        cellStore.setRowFilter(shownRows);
+
+        invalidateLayout();
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * show all rows hidden by {@link #filterRows(RowFilter)}
+     */
+    public void clearRowFilter() {
+        ++rowsGeneration;
+        if (!isRowsFiltered())
+            return;
+
+        heightArr = restoreUnfilteredHeights();
+        rows = cellStore.rows;
+        unfilteredHeightArr = null;
+        cellStore.setRowFilter(null);
+
+        invalidateLayout();
+        requestLayout();
+        invalidate();
+    }
+
+    // heights of all rows, with heights of shown rows which may be changed while filtered
+    private float[] restoreUnfilteredHeights() {
+        if (!isRowsFiltered())
+            return Arrays.copyOf(heightArr, rows);
+
+        RowBitSet shownRows = cellStore.rowFilter;
+        for (int r = 0; r < rows; r++)
+            unfilteredHeightArr[shownRows.select(r)] = heightArr[r];
+        return unfilteredHeightArr;
+    }
+
+    public boolean isRowsFiltered() {
+        return null != cellStore.rowFilter;
+    }
+
+    /**
+     * @param row shown row, between 0 to rows-1
+     * @return row in the whole table, including rows hidden by the filter
+     */
+    public int getUnfilteredRow(int row) {
+        return isRowsFiltered() ? cellStore.rowFilter.select(row) : row;
+    }
+
+    /**
+     * @param unfilteredRow row in the whole table
+     * @return shown row, or -1 if the row is hidden by the filter
+     */
+    public int getFilteredRow(int unfilteredRow) {
+        if (!isRowsFiltered())
+            return unfilteredRow;
+        RowBitSet shownRows = cellStore.rowFilter;
+        return shownRows.get(unfilteredRow) ? shownRows.rank(unfilteredRow) : -1;
+    }
+
+    private Executor getSortExecutor() {
+        if (null == sortExecutor)
+            sortExecutor = SortExecutorHolder.EXECUTOR;
+        return sortExecutor;
+    }
+
+    /**
+     * set the executor sorting and filtering rows, a shared background thread is used by default
+     */
+    public void setSortExecutor(Executor sortExecutor) {
+        this.sortExecutor = sortExecutor;
+    }
+
+    // shared executor of all tables, created while the first sort starts
+    private static class SortExecutorHolder {
+        static final Executor EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "EasyTableView-sort");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    // resolve the style of cells, by style if it is set, otherwise by textColor(s)
+    // and textSize(s), note that if textColor is set, textColors will be covered,
+    // the same with textSize and textSizes, nothing is allocated if the style exists
+    private void fillTextAttrs(CellInfo cellInfo) {
+        cellInfo.textWidths = null;
+        if (null != cellInfo.style) {
+            cellInfo.styleId = stylePool.obtain(cellInfo.style, Color.BLACK, defaultTextSize);
+            return;
+        }
+
+        if (null != cellInfo.texts && cellInfo.texts.length > 0) {
+            if (cellInfo.textColor == 0 && null == cellInfo.textColors) // both textColor and textColors are not set
+                cellInfo.textColor = Color.BLACK;
+            if (cellInfo.textSize == -1 && null == cellInfo.textSizes) // both textSize and textSizes are not set
+                cellInfo.textSize = defaultTextSize;
+        }
+        cellInfo.styleId = stylePool.obtain(cellInfo.textColor, cellInfo.textColors, cellInfo.textSize, cellInfo.textSizes);
+    }
+
+    // release styles which are no longer referenced by cells, merged cells or bound cells,
+    // only while more styles than the limit are interned, so that it is amortized
+    private void trimStyles() {
+        if (stylePool.size() <= styleTrimSize)
+            return;
+
+        boolean[] used = new boolean[stylePool.size()];
+        cellStore.markStyles(used);
+        int mergeInfoSize = mergeInfoList.size();
+        for (int i = 0; i < mergeInfoSize; i++)
+            if (mergeInfoList.get(i).styleId >= 0)
+                used[mergeInfoList.get(i).styleId] = true;
+        int boundSize = boundCellList.size();
+        for (int i = 0; i < boundSize; i++)
+            if (boundCellList.get(i).styleId >= 0)
+                used[boundCellList.get(i).styleId] = true;
+
+        int[] newIds = stylePool.compact(used);
+        cellStore.remapStyles(newIds);
+        for (int i = 0; i < mergeInfoSize; i++) {
             MergeInfo mergeInfo = mergeInfoList.get(i);
+            if (mergeInfo.styleId >= 0)
+                mergeInfo.styleId = newIds[mergeInfo.styleId];
+        }
+        for (int i = 0; i < boundSize; i++) {
+            CellInfo cellInfo = boundCellList.get(i);
+            if (cellInfo.styleId >= 0)
+                cellInfo.styleId = newIds[cellInfo.styleId];
+        }
+        styleTrimSize = Math.max(MIN_STYLE_TRIM_SIZE, stylePool.size() * 2);
+    }
 
-            // ignore the illegal data
-            if (mergeInfo.startRow > mergeInfo.endRow ||
-                    mergeInfo.startLine > mergeInfo.endLine ||
-                    mergeInfo.startRow < 0 || mergeInfo.startLine < 0 ||
-                    mergeInfo.endRow >= rows || mergeInfo.endLine >= lines)
+    // resolve the style of merged cells, the same as cells
+    private void fillMergeTextAttrs(MergeInfo mergeInfo) {
+        mergeInfo.textWidths = null;
+        if (null != mergeInfo.style) {
+            mergeInfo.styleId = stylePool.obtain(mergeInfo.style, Color.BLACK, defaultTextSize);
+            return;
+        }
+
+        if (null != mergeInfo.texts && mergeInfo.texts.length > 0) {
+            if (mergeInfo.textColor == 0 && null == mergeInfo.textColors) // both textColor and textColors are not set
+                mergeInfo.textColor = Color.BLACK;
+            if (mergeInfo.textSize == -1 && null == mergeInfo.textSizes) // both textSize and textSizes are not set
+                mergeInfo.textSize = defaultTextSize;
+        }
+        mergeInfo.styleId = stylePool.obtain(mergeInfo.textColor, mergeInfo.textColors, mergeInfo.textSize, mergeInfo.textSizes);
+    }
+
+    /**
+     * merge cells, data with illegal row or line, or overlapping
+     * other merged cells will be ignored
+     *
+     * @param mergeInfos merged cells info list
+     */
+    public void mergeCells(MergeInfo... mergeInfos) {
+        mergeCells(Arrays.asList(mergeInfos));
+    }
+
+    /**
+     * merge cells, data with illegal row or line, or overlapping
+     * other merged cells will be ignored, only the merged area
+     * is redrawn, without layout
+     *
+     * @param mergeInfoList merged cells info list
+     */
+    public void mergeCells(List<MergeInfo> mergeInfoList) {
+        if (null == mergeInfoList || mergeInfoList.size() == 0)
+            return;
+
+        int size = mergeInfoList.size();
+        for (int i = 0; i < size; i++) {
+            MergeInfo mergeInfo = mergeInfoList.get(i);
+
+            // ignore the illegal data, and data overlapping other merged cells
+            if (!isLegalMergedCell(mergeInfo) || isMerged(mergeInfo) || !addMergedCell(mergeInfo))
                 continue;
 
             if (mergeInfo.bgColor == 0) {
-                if (cellArr[mergeInfo.startRow][mergeInfo.startLine].bgColor == 0)
+                CellInfo cellInfo = getCell(mergeInfo.startRow, mergeInfo.startLine);
+                if (cellInfo.bgColor == 0)
                     mergeInfo.bgColor = bgColor;
                 else
-                    mergeInfo.bgColor = cellArr[mergeInfo.startRow][mergeInfo.startLine].bgColor;
+                    mergeInfo.bgColor = cellInfo.bgColor;
             }
             fillMergeTextAttrs(mergeInfo);
 
-            merged = true;
-            this.mergeInfoList.add(mergeInfo);
-        }
-
-        if (merged) {
-            requestLayout();
-            invalidate();
+            // size of rows and lines is not changed by merged cells
+            if (layoutValid) {
+                layoutMergedCell(mergeInfo);
+                invalidateMergedCell(mergeInfo);
+            } else {
+                invalidate();
+            }
         }
     }
 
@@ -1284,7 +2772,7 @@ public class EasyTableView extends View {
     }
 
     /**
-     * unmerge the merged cells
+     * unmerge the merged cells, only the unmerged area is redrawn, without layout
      *
      * @param mergeInfoList merged cells info list that need to be unmerged
      */
@@ -1292,10 +2780,100 @@ public class EasyTableView extends View {
         if (null == mergeInfoList || mergeInfoList.size() == 0)
             return;
 
-        this.mergeInfoList.removeAll(mergeInfoList);
+        int size = mergeInfoList.size();
+        for (int i = 0; i < size; i++) {
+            MergeInfo mergeInfo = mergeInfoList.get(i);
+            if (!removeMergedCell(mergeInfo))
+                continue;
 
-        requestLayout();
-        invalidate();
+            // coordinate of the merged cell is still valid while layout is valid
+            if (layoutValid)
+                invalidateMergedCell(mergeInfo);
+            else
+                invalidate();
+        }
+    }
+
+    // whether rows and lines of the merged cell are in the table
+    private boolean isLegalMergedCell(MergeInfo mergeInfo) {
+        // rows below the header row can not be merged while they are filtered
+        return (!isRowsFiltered() || mergeInfo.endRow == 0) &&
+                mergeInfo.startRow <= mergeInfo.endRow &&
+                mergeInfo.startLine <= mergeInfo.endLine &&
+                mergeInfo.startRow >= 0 && mergeInfo.startLine >= 0 &&
+                mergeInfo.endRow < rows && mergeInfo.endLine < lines;
+    }
+
+    // whether the merged cell is already in the table
+    private boolean isMerged(MergeInfo mergeInfo) {
+        return mergeInfo.index >= 0 && mergeInfo.index < mergeInfoList.size() &&
+                mergeInfoList.get(mergeInfo.index) == mergeInfo;
+    }
+
+    // whether any cell covered by the merged cell is covered by another merged cell
+    private boolean isOverlapped(MergeInfo mergeInfo) {
+        for (int r = mergeInfo.startRow; r <= mergeInfo.endRow; r++)
+            for (int l = mergeInfo.startLine; l <= mergeInfo.endLine; l++)
+                if (mergeIndex.containsKey(cellKey(r, l)))
+                    return true;
+        return false;
+    }
+
+    // add the merged cell to list and index, return false if overlapping
+    private boolean addMergedCell(MergeInfo mergeInfo) {
+        if (isOverlapped(mergeInfo))
+            return false;
+
+        for (int r = mergeInfo.startRow; r <= mergeInfo.endRow; r++)
+            for (int l = mergeInfo.startLine; l <= mergeInfo.endLine; l++)
+                mergeIndex.put(cellKey(r, l), mergeInfo);
+        mergeInfo.index = mergeInfoList.size();
+        mergeInfoList.add(mergeInfo);
+        return true;
+    }
+
+    // remove the merged cell from list and index, the last merged cell
+    // of the list is moved to its position so that nothing is shifted,
+    // return false if it is not merged
+    private boolean removeMergedCell(MergeInfo mergeInfo) {
+        if (!isMerged(mergeInfo))
+            return false;
+
+        int last = mergeInfoList.size() - 1;
+        MergeInfo lastMergeInfo = mergeInfoList.remove(last);
+        if (lastMergeInfo != mergeInfo) {
+            mergeInfoList.set(mergeInfo.index, lastMergeInfo);
+            lastMergeInfo.index = mergeInfo.index;
+        }
+        mergeInfo.index = -1;
+
+        for (int r = mergeInfo.startRow; r <= mergeInfo.endRow; r++)
+            for (int l = mergeInfo.startLine; l <= mergeInfo.endLine; l++)
+                mergeIndex.remove(cellKey(r, l));
+        return true;
+    }
+
+    // remove merged cells which are not inside the new size of table
+    private void removeMergedCellsOutside(int rows, int lines) {
+        for (int i = mergeInfoList.size() - 1; i >= 0; i--) {
+            MergeInfo mergeInfo = mergeInfoList.get(i);
+            if (mergeInfo.endRow >= rows || mergeInfo.endLine >= lines)
+                removeMergedCell(mergeInfo);
+        }
+    }
+
+    // remove all merged cells
+    private void clearMergedCells() {
+        int size = mergeInfoList.size();
+        for (int i = 0; i < size; i++)
+            mergeInfoList.get(i).index = -1;
+        mergeInfoList.clear();
+        mergeIndex.clear();
+    }
+
+    // key of a cell in index, packed by row and line
+    static long cellKey(int row, int line) {
+        return ((long) row << 32) | (line & 0xffffffffL);
     }
 
     /**
@@ -1305,6 +2883,7 @@ public class EasyTableView extends View {
      */
     public void setBottomDecorations(EasyDecoration decoration) {
         this.bottomDecoration = decoration;
+        invalidate();
     }
 
     /**
@@ -1314,6 +2893,7 @@ public class EasyTableView extends View {
      */
     public void setTopDecorations(EasyDecoration decoration) {
         this.topDecoration = decoration;
+        invalidate();
     }
 
 
@@ -1322,80 +2902,175 @@ public class EasyTableView extends View {
         return this.rows;
     }
 
+    /**
+     * set count of rows, rows are added with the default height or removed at the
+     * bottom, together with their data and merged cells, geometry attribute, a layout
+     * pass is requested, ignored while the adapter is set
+     */
     public void setRows(int rows) {
+        if (rows < 0 || null != adapter)
+            return;
+
+        // all rows are resized, including the hidden ones
+        clearRowFilter();
+        if (this.rows == rows)
+            return;
+
+        if (heightArr.length < rows)
+            heightArr = Arrays.copyOf(heightArr, Math.max(rows, this.rows * 3 / 2));
+        cellStore.applyRowOrder();
+        if (rows > this.rows) {
+            Arrays.fill(heightArr, this.rows, rows, ADD_ROWS_DEFAULT_HEIGHT);
+            cellStore.insertRows(this.rows, rows - this.rows);
+        } else {
+            cellStore.removeRows(rows, this.rows - 1);
+            removeMergedCellsOutside(rows, lines);
+        }
+        ++rowsGeneration;
+
         this.rows = rows;
+        invalidateGeometry();
     }
 
     public int getLines() {
         return this.lines;
     }
 
+    /**
+     * set count of lines, lines are added with the default width or removed at the
+     * right, together with their data and merged cells, geometry attribute, a layout
+     * pass is requested, ignored while the adapter is set
+     */
     public void setLines(int lines) {
+        if (lines < 0 || null != adapter || this.lines == lines)
+            return;
+
+        if (widthArr.length < lines)
+            widthArr = Arrays.copyOf(widthArr, Math.max(lines, this.lines * 3 / 2));
+        if (lines > this.lines) {
+            Arrays.fill(widthArr, this.lines, lines, ADD_LINES_DEFAULT_WIDTH);
+            cellStore.insertLines(this.lines, lines - this.lines);
+        } else {
+            cellStore.removeLines(lines, this.lines - 1);
+            removeMergedCellsOutside(rows, lines);
+        }
+        ++rowsGeneration;
+
         this.lines = lines;
+        invalidateGeometry();
     }
 
     public int getBgColor() {
         return bgColor;
     }
 
+    /**
+     * paint-only attribute, the table is just redrawn without layout
+     */
     public void setBgColor(int bgColor) {
+        if (this.bgColor == bgColor)
+            return;
         this.bgColor = bgColor;
+        invalidatePaint();
     }
 
     public int getHeaderHVColor() {
         return headerHVColor;
     }
 
+    /**
+     * paint-only attribute, the table is just redrawn without layout
+     */
     public void setHeaderHVColor(int headerHVColor) {
+        if (this.headerHVColor == headerHVColor)
+            return;
         this.headerHVColor = headerHVColor;
+        invalidatePaint();
     }
 
     public int getHeaderHColor() {
         return headerHColor;
     }
 
+    /**
+     * paint-only attribute, the table is just redrawn without layout
+     */
     public void setHeaderHColor(int headerHColor) {
+        if (this.headerHColor == headerHColor)
+            return;
         this.headerHColor = headerHColor;
+        invalidatePaint();
     }
 
     public int getHeaderVColor() {
         return headerVColor;
     }
 
+    /**
+     * paint-only attribute, the table is just redrawn without layout
+     */
     public void setHeaderVColor(int headerVColor) {
+        if (this.headerVColor == headerVColor)
+            return;
         this.headerVColor = headerVColor;
+        invalidatePaint();
     }
 
     public int getStrokeColor() {
         return strokeColor;
     }
 
+    /**
+     * paint-only attribute, the table is just redrawn without layout
+     */
     public void setStrokeColor(int strokeColor) {
+        if (this.strokeColor == strokeColor)
+            return;
         this.strokeColor = strokeColor;
+        invalidatePaint();
     }
 
     public int getStrokeSize() {
         return strokeSize;
     }
 
+    /**
+     * paint-only attribute, inner strokes are drawn across the edges of cells
+     * and do not change size of the table, so it is just redrawn without layout
+     */
     public void setStrokeSize(int strokeSize) {
+        if (this.strokeSize == strokeSize)
+            return;
         this.strokeSize = strokeSize;
+        invalidatePaint();
     }
 
     public int getOutStrokeColor() {
         return outStrokeColor;
     }
 
+    /**
+     * paint-only attribute, the table is just redrawn without layout
+     */
     public void setOutStrokeColor(int outStrokeColor) {
+        if (this.outStrokeColor == outStrokeColor)
+            return;
         this.outStrokeColor = outStrokeColor;
+        invalidatePaint();
     }
 
     public int getOutStrokeSize() {
         return outStrokeSize;
     }
 
+    /**
+     * geometry attribute, changing size of the table, a layout pass is requested
+     */
     public void setOutStrokeSize(int outStrokeSize) {
+        if (this.outStrokeSize == outStrokeSize)
+            return;
         this.outStrokeSize = outStrokeSize;
+        invalidateGeometry();
     }
 
     public float getOutStrokeCorner() {
@@ -1405,49 +3080,275 @@ public class EasyTableView extends View {
     /**
      * set the radius of the table's corner, if outStrokeCorner is greater than
      * width or height of corner cells, outStrokeCorner will be set to the
-     * minimum width or height of the corner cells
+     * minimum width or height of the corner cells, geometry attribute,
+     * a layout pass is requested
      *
      * @param outStrokeCorner radius of corner(px)
      */
     public void setOutStrokeCorner(float outStrokeCorner) {
-        float min = cellArr[0][0].width;
-        if (min > cellArr[0][0].height)
-            min = cellArr[0][0].height;
-
-        if (min > cellArr[0][lines - 1].width)
-            min = cellArr[0][lines - 1].width;
-        if (min > cellArr[0][lines - 1].height)
-            min = cellArr[0][lines - 1].height;
-
-        if (min > cellArr[rows - 1][0].width)
-            min = cellArr[rows - 1][0].width;
-        if (min > cellArr[rows - 1][0].height)
-            min = cellArr[rows - 1][0].height;
+        if (rows <= 0 || lines <= 0)
+            return;
 
-        if (min > cellArr[rows - 1][lines - 1].width)
-            min = cellArr[rows - 1][lines - 1].width;
-        if (min > cellArr[rows - 1][lines - 1].height)
-            min = cellArr[rows - 1][lines - 1].height;
+        float min = Math.min(widthArr[0], widthArr[lines - 1]);
+        min = Math.min(min, Math.min(heightArr[0], heightArr[rows - 1]));
 
         if (outStrokeCorner < 0 || outStrokeCorner > min)
             this.outStrokeCorner = min;
         else
             this.outStrokeCorner = outStrokeCorner;
+        invalidateGeometry();
     }
 
     public int getMode() {
         return mode;
     }
 
+    /**
+     * geometry attribute, a layout pass is requested
+     */
     public void setMode(int mode) {
+        if (this.mode == mode)
+            return;
         this.mode = mode;
+        invalidateGeometry();
+    }
+
+    public boolean isScrollable() {
+        return scrollable;
+    }
+
+    /**
+     * let the table scroll inside the view with drag and fling, only the visible
+     * cells are drawn and hit-tested, the view is not larger than its parent while
+     * wrap_content, geometry attribute, a layout pass is requested,
+     * note that RENDER_MODE_PICTURE is drawn as RENDER_MODE_DIRECT while scrollable
+     *
+     * @param scrollable whether the table is scrollable
+     */
+    public void setScrollable(boolean scrollable) {
+        if (this.scrollable == scrollable)
+            return;
+
+        if (!scrollable) {
+            scroller.abortAnimation();
+            scrollTo(0, 0);
+        }
+        this.scrollable = scrollable;
+        invalidateGeometry();
+    }
+
+    public boolean isHeadersFrozen() {
+        return headersFrozen;
+    }
+
+    /**
+     * pin the header row and line to the top and left edges while scrollable,
+     * they are drawn from a cached layer, which is recorded again only while
+     * header cells are changed, paint-only attribute
+     *
+     * @param headersFrozen whether headers are frozen
+     */
+    public void setHeadersFrozen(boolean headersFrozen) {
+        if (this.headersFrozen == headersFrozen)
+            return;
+        this.headersFrozen = headersFrozen;
+        invalidate();
+    }
+
+    public int getStoreMode() {
+        return storeMode;
+    }
+
+    /**
+     * set the store mode, STORE_MODE_OBJECT, STORE_MODE_PACKED or STORE_MODE_SPARSE,
+     * cells of the original data are moved to the new store
+     *
+     * @param storeMode store mode
+     */
+    public void setStoreMode(int storeMode) {
+        if (this.storeMode == storeMode)
+            return;
+
+        // all rows are moved to the new store
+        clearRowFilter();
+        CellStore newStore;
+        if (storeMode == STORE_MODE_PACKED)
+            newStore = new PackedCellStore(this, stylePool);
+        else if (storeMode == STORE_MODE_SPARSE)
+            newStore = new SparseCellStore(cellRecycler);
+        else
+            newStore = new ObjectCellStore(cellRecycler);
+        newStore.reset(cellStore.rows, cellStore.lines);
+        CellInfo cellInfo;
+        for (int r = 0; r < cellStore.rows; r++) {
+            for (int l = 0; l < cellStore.lines; l++) {
+                // cells of the new store are empty after reset
+                cellInfo = cellStore.get(r, l);
+                if (!cellInfo.isEmpty())
+                    newStore.set(r, l, cellStore.export(r, l));
+            }
+        }
+        // cells of the original store are not recycled, texts of them may be kept by the new one
+
+        this.storeMode = storeMode;
+        cellStore = newStore;
+        ++rowsGeneration;
+        invalidateLayout();
+        invalidate();
+    }
+
+    public int getRenderMode() {
+        return renderMode;
     }
 
     /**
-     * redraw the table, note that if any attributes or decorations are reset,
-     * this should be call to redraw the table view
+     * set the render mode, RENDER_MODE_DIRECT, RENDER_MODE_PICTURE or RENDER_MODE_TILE,
+     * note that in RENDER_MODE_PICTURE and RENDER_MODE_TILE, {@link #reset()} should be
+     * called after data of cells is changed in place, so that the table is rendered again
+     *
+     * @param renderMode render mode
+     */
+    public void setRenderMode(int renderMode) {
+        if (this.renderMode == renderMode)
+            return;
+
+        this.renderMode = renderMode;
+        pictureValid = false;
+        if (renderMode != RENDER_MODE_PICTURE) {
+            // release the recorded pictures
+            basePicture = null;
+            contentPicture = null;
+        }
+        if (renderMode != RENDER_MODE_TILE && null != tileCache) {
+            // release the tiles
+            tileCache.clear();
+            tileCache = null;
+        }
+        invalidate();
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * set size of bitmap tiles in RENDER_MODE_TILE
+     *
+     * @param tileSize width and height of each tile(px)
+     */
+    public void setTileSize(int tileSize) {
+        if (tileSize <= 0 || this.tileSize == tileSize)
+            return;
+
+        this.tileSize = tileSize;
+        if (null != tileCache)
+            tileCache.setTileSize(tileSize);
+        invalidate();
+    }
+
+    public long getTileCacheBytes() {
+        return tileCacheBytes;
+    }
+
+    /**
+     * set memory budget of bitmap tiles in RENDER_MODE_TILE, tiles that are
+     * not visible will be released while exceeding the budget
+     *
+     * @param tileCacheBytes max bytes of tiles
+     */
+    public void setTileCacheBytes(long tileCacheBytes) {
+        this.tileCacheBytes = tileCacheBytes;
+        if (null != tileCache)
+            tileCache.setMaxBytes(tileCacheBytes);
+    }
+
+    /**
+     * set the max number of measured text widths kept in cache,
+     * texts found in cache will not be measured again
+     *
+     * @param maxSize max number of text widths, 0 to disable caching
+     */
+    public void setTextWidthCacheSize(int maxSize) {
+        textWidthCache.setMaxSize(maxSize < 0 ? 0 : maxSize);
+    }
+
+    public int getTextWidthCacheSize() {
+        return textWidthCache.getMaxSize();
+    }
+
+    /**
+     * @return times of text widths found in cache
+     */
+    public int getTextWidthCacheHitCount() {
+        return textWidthCache.getHitCount();
+    }
+
+    /**
+     * @return times of text widths measured while not found in cache
+     */
+    public int getTextWidthCacheMissCount() {
+        return textWidthCache.getMissCount();
+    }
+
+    public int getCellPoolSize() {
+        return cellRecycler.getMaxSize();
+    }
+
+    /**
+     * set max size of the pool of cells, cells created by the table, such as empty
+     * cells and cells bound from the adapter, are recycled into the pool while they
+     * leave the visible range or are removed, and reused with arrays obtained by
+     * {@link CellInfo#obtainTexts(int)} and the like, arrays set by users are never reused,
+     * note that a recycled cell should not be held after it is released by the table,
+     * cells passed back by setData or updateData are kept by users and never recycled
+     *
+     * @param maxSize max cells in the pool, 0 to disable recycling
+     */
+    public void setCellPoolSize(int maxSize) {
+        cellRecycler.setMaxSize(maxSize);
+    }
+
+    /**
+     * @return times that a cell is reused from the pool
+     */
+    public int getCellPoolHitCount() {
+        return cellRecycler.getHitCount();
+    }
+
+    /**
+     * @return times that a new cell is created while the pool is empty
+     */
+    public int getCellPoolMissCount() {
+        return cellRecycler.getMissCount();
+    }
+
+    /**
+     * @return count of distinct styles interned by the table, shared by cells
+     */
+    public int getStyleCount() {
+        return stylePool.size();
+    }
+
+    /**
+     * layout and redraw the table, attributes set by setters are applied
+     * automatically, where paint-only ones such as colors just redraw the table,
+     * and geometry ones such as mode request a layout pass, this should be called
+     * if data of cells or decorations are changed in place
      */
     public void reset() {
+        // texts, colors and sizes may be changed in place, so they are resolved again
+        cellStore.clearTextCaches();
+        int mergeInfoSize = mergeInfoList.size();
+        for (int i = 0; i < mergeInfoSize; i++) {
+            MergeInfo mergeInfo = mergeInfoList.get(i);
+            mergeInfo.styleId = -1;
+            mergeInfo.textWidths = null;
+        }
+        trimStyles();
+        // sorts and filters started with the original texts are dropped
+        ++rowsGeneration;
+
+        invalidateLayout();
         requestLayout();
         invalidate();
     }
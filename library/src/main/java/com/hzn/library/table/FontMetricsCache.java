@@ -0,0 +1,88 @@
+package com.hzn.library.table;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.SparseArray;
+
+import java.util.HashMap;
+
+/**
+ * Cache of font metrics keyed by typeface and text size, font metrics of each
+ * text size is calculated once by the paint, then it is just a lookup while
+ * measuring and drawing texts.
+ * <br/>
+ * Created by huzn on 2017/10/16.
+ */
+class FontMetricsCache {
+
+    private final Paint paint;
+    private final Paint.FontMetrics fontMetrics;
+    // metrics of each typeface by text size, null key for the default typeface
+    private final HashMap<Typeface, SparseArray<Metrics>> metricsMap;
+    // the last used typeface and its metrics, skip looking up the map
+    private Typeface lastTypeface;
+    private SparseArray<Metrics> metricsArray;
+
+    FontMetricsCache(Paint paint) {
+        this.paint = paint;
+        this.fontMetrics = new Paint.FontMetrics();
+        this.metricsMap = new HashMap<>();
+        this.metricsArray = new SparseArray<>();
+        this.metricsMap.put(null, metricsArray);
+    }
+
+    /**
+     * height of a text line, from top to bottom of the font
+     */
+    float getLineHeight(Typeface typeface, int textSize) {
+        return getMetrics(typeface, textSize).lineHeight;
+    }
+
+    /**
+     * offset from the vertical center of a text line to its baseline
+     */
+    float getBaselineOffset(Typeface typeface, int textSize) {
+        return getMetrics(typeface, textSize).baselineOffset;
+    }
+
+    void clear() {
+        metricsMap.clear();
+        lastTypeface = null;
+        metricsArray = new SparseArray<>();
+        metricsMap.put(null, metricsArray);
+    }
+
+    private Metrics getMetrics(Typeface typeface, int textSize) {
+        if (typeface != lastTypeface) {
+            SparseArray<Metrics> array = metricsMap.get(typeface);
+            if (null == array) {
+                array = new SparseArray<>();
+                metricsMap.put(typeface, array);
+            }
+            lastTypeface = typeface;
+            metricsArray = array;
+        }
+
+        Metrics metrics = metricsArray.get(textSize);
+        if (null == metrics) {
+            float originTextSize = paint.getTextSize();
+            Typeface originTypeface = paint.getTypeface();
+            paint.setTextSize(textSize);
+            paint.setTypeface(typeface);
+            paint.getFontMetrics(fontMetrics);
+            paint.setTextSize(originTextSize);
+            paint.setTypeface(originTypeface);
+
+            metrics = new Metrics();
+            metrics.lineHeight = fontMetrics.bottom - fontMetrics.top;
+            metrics.baselineOffset = -(fontMetrics.ascent + fontMetrics.descent) / 2.0f;
+            metricsArray.put(textSize, metrics);
+        }
+        return metrics;
+    }
+
+    private static class Metrics {
+        float lineHeight;
+        float baselineOffset;
+    }
+}
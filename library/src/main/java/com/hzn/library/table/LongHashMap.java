@@ -0,0 +1,185 @@
+package com.hzn.library.table;
+
+import java.util.Arrays;
+
+/**
+ * Hash map with primitive long keys, using open addressing and linear probing,
+ * no boxing and no entry objects. Null values are not supported, null returned
+ * by {@link #get(long)} means no value is mapped.
+ * <br/>
+ * Created by huzn on 2017/10/16.
+ */
+class LongHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    // resize while size is greater than threshold, 3/4 of capacity
+    private int threshold;
+
+    LongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize)
+            capacity <<= 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        threshold = capacity * 3 / 4;
+    }
+
+    // spread the bits of key, capacity is always a power of two
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (null != values[i]) {
+            if (keys[i] == key)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * map value to key
+     *
+     * @return the previous value, or null if there is no mapping for key
+     */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (null == value)
+            throw new IllegalArgumentException("null value is not supported");
+
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (null != values[i]) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold)
+            rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * remove the mapping of key
+     *
+     * @return the removed value, or null if there is no mapping for key
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int i = indexOf(key);
+        if (i < 0)
+            return null;
+
+        V old = (V) values[i];
+        values[i] = null;
+        --size;
+
+        // shift back the following entries of the same probe sequence,
+        // so that no tombstone is needed
+        int mask = keys.length - 1;
+        int hole = i;
+        i = (i + 1) & mask;
+        while (null != values[i]) {
+            int home = hash(keys[i]) & mask;
+            // move the entry if its home is not in (hole, i]
+            if (hole <= i ? (home <= hole || home > i) : (home <= hole && home > i)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                values[i] = null;
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        return old;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * capacity of slots, iterate mappings by {@link #keyAt(int)} and {@link #valueAt(int)}
+     * from 0 to capacity, no mapping is changed while iterating
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return value of the slot, or null if the slot is empty
+     */
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * @return a map with the same mappings, slots are copied without rehashing
+     */
+    LongHashMap<V> copy() {
+        LongHashMap<V> map = new LongHashMap<>(0);
+        map.keys = keys.clone();
+        map.values = values.clone();
+        map.size = size;
+        map.threshold = threshold;
+        return map;
+    }
+
+    void clear() {
+        if (size == 0)
+            return;
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (null == oldValues[j])
+                continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (null != values[i])
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
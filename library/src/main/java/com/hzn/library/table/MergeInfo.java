@@ -50,6 +50,10 @@ public class MergeInfo {
      * Height of cell, access with {@link #getHeight()}.
      */
     float height = -1.0f;
+    /**
+     * Position in the merged cells list of table, -1 if not merged.
+     */
+    int index = -1;
     /**
      * Background color of merged cell, draw with color
      * of left-top cell by default.
@@ -80,6 +84,21 @@ public class MergeInfo {
      * will be showed.
      */
     public String[] texts;
+    /**
+     * Style of texts, this will override {@link #textColor}, {@link #textColors},
+     * {@link #textSize} and {@link #textSizes}, cells with equal styles share one style,
+     * color and size not set by the style are the defaults of the table.
+     */
+    public CellStyle style = null;
+    /**
+     * Id of the style in table, resolved while data is set to table, -1 if not resolved,
+     * reset by {@link EasyTableView#reset()} so that attributes changed in place are resolved again.
+     */
+    int styleId = -1;
+    /**
+     * Measured width of each text line, cleared while data is set to table or the table is reset.
+     */
+    float[] textWidths = null;
 
     public MergeInfo() {
     }
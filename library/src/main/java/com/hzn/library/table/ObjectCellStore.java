@@ -0,0 +1,272 @@
+package com.hzn.library.table;
+
+import java.util.Arrays;
+
+/**
+ * Cells kept as instances, rows of cells are kept in a gap buffer, so that
+ * inserting or removing k rows near the last edited position costs O(k*lines)
+ * plus moving the gap, instead of copying the whole table. Lines are mapped to
+ * physical slots of rows, so that inserting, removing and moving lines change
+ * the mapping and the slots of the lines only. Empty cells are obtained from
+ * the recycler while they are first read, and recycled while they are replaced
+ * or removed.
+ * <br/>
+ * Created by huzn on 2017/10/21.
+ */
+class ObjectCellStore extends CellStore {
+
+    private static final int MIN_GAP = 16;
+
+    private final CellRecycler cellRecycler;
+    // rows of cells, with a gap of unused slots in [gapStart, gapEnd)
+    private CellInfo[][] rowBuf;
+    private int gapStart;
+    private int gapEnd;
+    // physical slot in rows of each line, the capacity can be greater than lines
+    private int[] lineMap;
+    // size of each row, including free slots
+    private int slots;
+    // slots not mapped by any line, cells in them are null
+    private int[] freeSlots;
+    private int freeCount;
+
+    ObjectCellStore(CellRecycler cellRecycler) {
+        this.cellRecycler = cellRecycler;
+        this.rowBuf = new CellInfo[0][];
+        this.lineMap = new int[0];
+        this.freeSlots = new int[0];
+    }
+
+    // index in buffer of the row
+    private int index(int row) {
+        return row < gapStart ? row : row + gapEnd - gapStart;
+    }
+
+    @Override
+    void reset(int rows, int lines) {
+        // recycle cells of the original data
+        for (int r = 0; r < this.rows; r++)
+            for (CellInfo cellInfo : rowBuf[index(r)])
+                cellRecycler.recycle(cellInfo);
+
+        this.rows = rows;
+        this.lines = lines;
+        clearRowOrder();
+        slots = lines;
+        lineMap = new int[lines];
+        for (int l = 0; l < lines; l++)
+            lineMap[l] = l;
+        freeCount = 0;
+
+        rowBuf = new CellInfo[rows][];
+        gapStart = rows;
+        gapEnd = rows;
+        for (int r = 0; r < rows; r++)
+            rowBuf[r] = new CellInfo[slots];
+    }
+
+    @Override
+    TextSnapshot snapshotTexts() {
+        // references of rows without the gap and the line mapping are copied, while rows
+        // are shared, cells in them are still replaced and recycled in place on the main
+        // thread, so the snapshot races with changes of cells, and its result is safe only
+        // because it is dropped by the rows generation once cells are changed
+        final CellInfo[][] cellRows = new CellInfo[rows][];
+        System.arraycopy(rowBuf, 0, cellRows, 0, gapStart);
+        System.arraycopy(rowBuf, gapEnd, cellRows, gapStart, rows - gapStart);
+        final int[] lineSlots = Arrays.copyOf(lineMap, lines);
+        return new TextSnapshot(rowOrder) {
+            @Override
+            String firstText(int position, int line) {
+                // an empty cell not read yet is null
+                return firstText(cellRows[storageRow(position)][lineSlots[line]]);
+            }
+        };
+    }
+
+    @Override
+    CellInfo get(int row, int line) {
+        CellInfo[] cellRow = rowBuf[index(storageRow(row))];
+        int slot = lineMap[line];
+        CellInfo cellInfo = cellRow[slot];
+        if (null == cellInfo) {
+            cellInfo = cellRecycler.obtain();
+            cellRow[slot] = cellInfo;
+        }
+        return cellInfo;
+    }
+
+    @Override
+    CellInfo export(int row, int line) {
+        return get(row, line);
+    }
+
+    @Override
+    void set(int row, int line, CellInfo cellInfo) {
+        CellInfo[] cellRow = rowBuf[index(storageRow(row))];
+        int slot = lineMap[line];
+        if (cellRow[slot] != cellInfo)
+            cellRecycler.recycle(cellRow[slot]);
+        cellRow[slot] = cellInfo;
+    }
+
+    @Override
+    void clearTextCaches() {
+        for (int r = 0; r < rows; r++) {
+            for (CellInfo cellInfo : rowBuf[index(r)]) {
+                if (null != cellInfo) {
+                    cellInfo.styleId = -1;
+                    cellInfo.textWidths = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    void markStyles(boolean[] used) {
+        for (int r = 0; r < rows; r++)
+            for (CellInfo cellInfo : rowBuf[index(r)])
+                if (null != cellInfo && cellInfo.styleId >= 0)
+                    used[cellInfo.styleId] = true;
+    }
+
+    @Override
+    void remapStyles(int[] newIds) {
+        for (int r = 0; r < rows; r++)
+            for (CellInfo cellInfo : rowBuf[index(r)])
+                if (null != cellInfo && cellInfo.styleId >= 0)
+                    cellInfo.styleId = newIds[cellInfo.styleId];
+    }
+
+    @Override
+    boolean keepsInstances() {
+        return true;
+    }
+
+    @Override
+    void permuteRows(int[] order) {
+        // only references of rows are moved, the gap is closed
+        CellInfo[][] newRowBuf = new CellInfo[rows][];
+        for (int r = 0; r < rows; r++)
+            newRowBuf[r] = rowBuf[index(order[r])];
+        rowBuf = newRowBuf;
+        gapStart = rows;
+        gapEnd = rows;
+    }
+
+    // move the gap to the row, only rows between them are moved
+    private void moveGap(int row) {
+        if (row < gapStart) {
+            int count = gapStart - row;
+            System.arraycopy(rowBuf, row, rowBuf, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (row > gapStart) {
+            int count = row - gapStart;
+            System.arraycopy(rowBuf, gapEnd, rowBuf, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    // grow the buffer while the gap is smaller than count
+    private void ensureGap(int count) {
+        if (gapEnd - gapStart >= count)
+            return;
+        int tailCount = rowBuf.length - gapEnd;
+        int newLength = Math.max(rows + count + MIN_GAP, (rows + count) * 3 / 2);
+        CellInfo[][] newRowBuf = new CellInfo[newLength][];
+        System.arraycopy(rowBuf, 0, newRowBuf, 0, gapStart);
+        System.arraycopy(rowBuf, gapEnd, newRowBuf, newLength - tailCount, tailCount);
+        rowBuf = newRowBuf;
+        gapEnd = newLength - tailCount;
+    }
+
+    @Override
+    void insertRows(int row, int count) {
+        moveGap(row);
+        ensureGap(count);
+        for (int r = 0; r < count; r++)
+            rowBuf[gapStart++] = new CellInfo[slots];
+        rows += count;
+    }
+
+    @Override
+    void removeRows(int start, int end) {
+        int count = end - start + 1;
+        moveGap(start);
+        // recycle cells of removed rows
+        for (int r = 0; r < count; r++) {
+            for (CellInfo cellInfo : rowBuf[gapEnd])
+                cellRecycler.recycle(cellInfo);
+            rowBuf[gapEnd++] = null;
+        }
+        rows -= count;
+    }
+
+    // grow slots of all rows while free slots are less than count,
+    // which is amortized by growing to 1.5 times
+    private void ensureFreeSlots(int count) {
+        if (freeCount >= count)
+            return;
+        int newSlots = Math.max(slots + count - freeCount, slots * 3 / 2);
+        for (int r = 0; r < rows; r++) {
+            int i = index(r);
+            CellInfo[] newRow = new CellInfo[newSlots];
+            System.arraycopy(rowBuf[i], 0, newRow, 0, slots);
+            rowBuf[i] = newRow;
+        }
+        if (freeSlots.length < freeCount + newSlots - slots) {
+            int[] newFreeSlots = new int[freeCount + newSlots - slots];
+            System.arraycopy(freeSlots, 0, newFreeSlots, 0, freeCount);
+            freeSlots = newFreeSlots;
+        }
+        for (int slot = newSlots - 1; slot >= slots; slot--)
+            freeSlots[freeCount++] = slot;
+        slots = newSlots;
+    }
+
+    @Override
+    void insertLines(int line, int count) {
+        ensureFreeSlots(count);
+        if (lineMap.length < lines + count) {
+            int[] newLineMap = new int[Math.max(lines + count, lines * 3 / 2)];
+            System.arraycopy(lineMap, 0, newLineMap, 0, lines);
+            lineMap = newLineMap;
+        }
+        // map the new lines to free slots, cells are obtained while they are read
+        System.arraycopy(lineMap, line, lineMap, line + count, lines - line);
+        for (int l = line; l < line + count; l++)
+            lineMap[l] = freeSlots[--freeCount];
+
+        lines += count;
+    }
+
+    @Override
+    void removeLines(int start, int end) {
+        int count = end - start + 1;
+        if (freeSlots.length < freeCount + count) {
+            int[] newFreeSlots = new int[Math.max(freeCount + count, slots)];
+            System.arraycopy(freeSlots, 0, newFreeSlots, 0, freeCount);
+            freeSlots = newFreeSlots;
+        }
+        for (int l = start; l <= end; l++) {
+            int slot = lineMap[l];
+            // recycle cells of removed lines
+            for (int r = 0; r < rows; r++) {
+                CellInfo[] cellRow = rowBuf[index(r)];
+                cellRecycler.recycle(cellRow[slot]);
+                cellRow[slot] = null;
+            }
+            freeSlots[freeCount++] = slot;
+        }
+        System.arraycopy(lineMap, end + 1, lineMap, start, lines - end - 1);
+
+        lines -= count;
+    }
+
+    @Override
+    void moveLines(int from, int to, int count) {
+        moveRange(lineMap, from, to, count);
+    }
+}
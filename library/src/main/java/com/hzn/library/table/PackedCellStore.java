@@ -0,0 +1,292 @@
+package com.hzn.library.table;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Cells kept in parallel primitive arrays indexed by row*lines+column, about
+ * twenty bytes for each cell instead of a CellInfo object. Styles of texts are
+ * kept as ids of the interned styles of table. Cells are handed out as a
+ * read-only view while drawing, and as copies to users. Moving lines only
+ * changes the column of each line, columns are moved in the arrays before
+ * lines are inserted or removed.
+ * <br/>
+ * Created by huzn on 2017/10/21.
+ */
+class PackedCellStore extends CellStore {
+
+    private final EasyTableView parent;
+    private final StylePool stylePool;
+    // read-only view returned by get
+    private final CellInfo view;
+
+    private byte[] types;
+    private int[] bgColors;
+    private float[] widths;
+    private float[] heights;
+    private int[] styleIds;
+    private String[][] texts;
+    // allocated only while any tag is set
+    private Object[] tags;
+    // column in arrays of each line, null while lines are not moved
+    private int[] lineMap;
+
+    PackedCellStore(EasyTableView parent, StylePool stylePool) {
+        this.parent = parent;
+        this.stylePool = stylePool;
+        this.view = new CellInfo();
+        this.view.readOnly = true;
+        reset(0, 0);
+    }
+
+    @Override
+    void reset(int rows, int lines) {
+        this.rows = rows;
+        this.lines = lines;
+        clearRowOrder();
+        int size = rows * lines;
+        types = new byte[size];
+        bgColors = new int[size];
+        widths = new float[size];
+        heights = new float[size];
+        styleIds = new int[size];
+        texts = new String[size][];
+        tags = null;
+        lineMap = null;
+
+        clearCells(0, size);
+    }
+
+    // set cells in [from, to) to empty ones
+    private void clearCells(int from, int to) {
+        Arrays.fill(types, from, to, (byte) CellInfo.TYPE_NORMAL);
+        Arrays.fill(bgColors, from, to, 0);
+        Arrays.fill(widths, from, to, -1.0f);
+        Arrays.fill(heights, from, to, -1.0f);
+        Arrays.fill(styleIds, from, to, -1);
+        Arrays.fill(texts, from, to, null);
+        if (null != tags)
+            Arrays.fill(tags, from, to, null);
+    }
+
+    @Override
+    TextSnapshot snapshotTexts() {
+        // arrays are replaced rather than resized, so they are shared, but texts of cells are
+        // still set in place on the main thread, so the snapshot races with changes of cells,
+        // and its result is safe only because it is dropped by the rows generation
+        final String[][] cellTexts = texts;
+        final int columns = lines;
+        final int[] columnMap = null == lineMap ? null : lineMap.clone();
+        return new TextSnapshot(rowOrder) {
+            @Override
+            String firstText(int position, int line) {
+                String[] t = cellTexts[storageRow(position) * columns + (null == columnMap ? line : columnMap[line])];
+                return null == t || t.length <= 0 ? null : t[0];
+            }
+        };
+    }
+
+    @Override
+    CellInfo get(int row, int line) {
+        fill(view, row, line);
+        return view;
+    }
+
+    @Override
+    CellInfo export(int row, int line) {
+        CellInfo cellInfo = new CellInfo();
+        fill(cellInfo, row, line);
+        // write the style back into fields, so that changing them works as before
+        CellStyle style = stylePool.get(cellInfo.styleId);
+        if (null != style && style.isPlain()) {
+            cellInfo.textColor = style.getTextColor();
+            cellInfo.textColors = null == style.getTextColors() ? null : style.getTextColors().clone();
+            cellInfo.textSize = style.getTextSize();
+            cellInfo.textSizes = null == style.getTextSizes() ? null : style.getTextSizes().clone();
+        } else {
+            cellInfo.style = style;
+        }
+        return cellInfo;
+    }
+
+    // index in arrays of the cell
+    private int index(int row, int line) {
+        return storageRow(row) * lines + (null == lineMap ? line : lineMap[line]);
+    }
+
+    private void fill(CellInfo cellInfo, int row, int line) {
+        int i = index(row, line);
+        cellInfo.type = types[i];
+        cellInfo.tag = null == tags ? null : tags[i];
+        cellInfo.row = row;
+        cellInfo.line = line;
+        cellInfo.width = widths[i];
+        cellInfo.height = heights[i];
+        cellInfo.bgColor = bgColors[i];
+        cellInfo.styleId = styleIds[i];
+        cellInfo.texts = texts[i];
+        cellInfo.parent = parent;
+    }
+
+    @Override
+    void set(int row, int line, CellInfo cellInfo) {
+        int i = index(row, line);
+        types[i] = (byte) cellInfo.type;
+        bgColors[i] = cellInfo.bgColor;
+        widths[i] = cellInfo.width;
+        heights[i] = cellInfo.height;
+        styleIds[i] = cellInfo.styleId;
+        texts[i] = cellInfo.texts;
+        if (null != cellInfo.tag && null == tags)
+            tags = new Object[rows * lines];
+        if (null != tags)
+            tags[i] = cellInfo.tag;
+    }
+
+    @Override
+    void clearTextCaches() {
+        // cells are handed out as copies, so nothing is changed in place
+    }
+
+    @Override
+    void markStyles(boolean[] used) {
+        int size = rows * lines;
+        for (int i = 0; i < size; i++)
+            if (styleIds[i] >= 0)
+                used[styleIds[i]] = true;
+    }
+
+    @Override
+    void remapStyles(int[] newIds) {
+        int size = rows * lines;
+        for (int i = 0; i < size; i++)
+            if (styleIds[i] >= 0)
+                styleIds[i] = newIds[styleIds[i]];
+    }
+
+    @Override
+    boolean keepsInstances() {
+        return false;
+    }
+
+    @Override
+    void insertRows(int row, int count) {
+        splice(1, rows * lines, row * lines, count * lines);
+        rows += count;
+        clearCells(row * lines, (row + count) * lines);
+    }
+
+    @Override
+    void removeRows(int start, int end) {
+        int count = end - start + 1;
+        splice(1, rows * lines, start * lines, -count * lines);
+        rows -= count;
+    }
+
+    @Override
+    void insertLines(int line, int count) {
+        applyLineMap();
+        splice(rows, lines, line, count);
+        lines += count;
+        for (int r = 0; r < rows; r++)
+            clearCells(r * lines + line, r * lines + line + count);
+    }
+
+    @Override
+    void removeLines(int start, int end) {
+        applyLineMap();
+        int count = end - start + 1;
+        splice(rows, lines, start, -count);
+        lines -= count;
+    }
+
+    @Override
+    void permuteRows(int[] order) {
+        types = (byte[]) permute(types, order, lines);
+        bgColors = (int[]) permute(bgColors, order, lines);
+        widths = (float[]) permute(widths, order, lines);
+        heights = (float[]) permute(heights, order, lines);
+        styleIds = (int[]) permute(styleIds, order, lines);
+        texts = (String[][]) permute(texts, order, lines);
+        if (null != tags)
+            tags = (Object[]) permute(tags, order, lines);
+    }
+
+    // copy the array into a new one, block r of which is block order[r] of the array
+    private static Object permute(Object src, int[] order, int blockSize) {
+        Object dst = Array.newInstance(src.getClass().getComponentType(), Array.getLength(src));
+        for (int r = 0; r < order.length; r++)
+            System.arraycopy(src, order[r] * blockSize, dst, r * blockSize, blockSize);
+        return dst;
+    }
+
+    @Override
+    void moveLines(int from, int to, int count) {
+        if (null == lineMap) {
+            lineMap = new int[lines];
+            for (int l = 0; l < lines; l++)
+                lineMap[l] = l;
+        }
+        moveRange(lineMap, from, to, count);
+    }
+
+    // move columns in arrays by the line map, so that the column of each line is the line
+    private void applyLineMap() {
+        if (null == lineMap)
+            return;
+        types = (byte[]) permuteColumns(types, rows, lineMap);
+        bgColors = (int[]) permuteColumns(bgColors, rows, lineMap);
+        widths = (float[]) permuteColumns(widths, rows, lineMap);
+        heights = (float[]) permuteColumns(heights, rows, lineMap);
+        styleIds = (int[]) permuteColumns(styleIds, rows, lineMap);
+        texts = (String[][]) permuteColumns(texts, rows, lineMap);
+        if (null != tags)
+            tags = (Object[]) permuteColumns(tags, rows, lineMap);
+        lineMap = null;
+    }
+
+    // copy the array into a new one, column l of each row of which is column columns[l] of the array,
+    // runs of adjacent columns are copied at once
+    private static Object permuteColumns(Object src, int rows, int[] columns) {
+        Object dst = Array.newInstance(src.getClass().getComponentType(), Array.getLength(src));
+        int lines = columns.length;
+        for (int r = 0; r < rows; r++) {
+            int offset = r * lines;
+            int start = 0;
+            for (int l = 1; l <= lines; l++) {
+                if (l < lines && columns[l] == columns[l - 1] + 1)
+                    continue;
+                System.arraycopy(src, offset + columns[start], dst, offset + start, l - start);
+                start = l;
+            }
+        }
+        return dst;
+    }
+
+    // splice every array, which is made up of blocks with the same size
+    private void splice(int blocks, int blockSize, int index, int count) {
+        types = (byte[]) splice(types, blocks, blockSize, index, count);
+        bgColors = (int[]) splice(bgColors, blocks, blockSize, index, count);
+        widths = (float[]) splice(widths, blocks, blockSize, index, count);
+        heights = (float[]) splice(heights, blocks, blockSize, index, count);
+        styleIds = (int[]) splice(styleIds, blocks, blockSize, index, count);
+        texts = (String[][]) splice(texts, blocks, blockSize, index, count);
+        if (null != tags)
+            tags = (Object[]) splice(tags, blocks, blockSize, index, count);
+    }
+
+    // copy the array into a new one, inserting count elements at index of each block,
+    // or removing -count elements from index while count is negative
+    private static Object splice(Object src, int blocks, int blockSize, int index, int count) {
+        int newBlockSize = blockSize + count;
+        Object dst = Array.newInstance(src.getClass().getComponentType(), blocks * newBlockSize);
+        int tailSrc = count >= 0 ? index : index - count;
+        int tailDst = count >= 0 ? index + count : index;
+        int tailLength = blockSize - tailSrc;
+        for (int b = 0; b < blocks; b++) {
+            System.arraycopy(src, b * blockSize, dst, b * newBlockSize, index);
+            System.arraycopy(src, b * blockSize + tailSrc, dst, b * newBlockSize + tailDst, tailLength);
+        }
+        return dst;
+    }
+}
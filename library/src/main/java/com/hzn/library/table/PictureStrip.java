@@ -0,0 +1,123 @@
+package com.hzn.library.table;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.util.SparseArray;
+
+/**
+ * Pictures of a long strip of the table, such as the frozen header row or line.
+ * The strip is split into chunks along it, each chunk is recorded the first time
+ * it is visible and replayed until it is invalidated, so scrolling along the strip
+ * records nothing again.
+ * <br/>
+ * Created by huzn on 2017/10/19.
+ */
+class PictureStrip {
+
+    static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /**
+     * render content of a chunk, canvas is translated and clipped to the chunk,
+     * so content is drawn in coordinate of the table
+     */
+    interface ChunkRenderer {
+        void renderChunk(Canvas canvas);
+    }
+
+    private final ChunkRenderer renderer;
+    // whether the strip is along x-axis, such as the header row
+    private final boolean horizontal;
+    private final int chunkSize;
+    private final SparseArray<Chunk> chunks;
+
+    PictureStrip(ChunkRenderer renderer, boolean horizontal, int chunkSize) {
+        this.renderer = renderer;
+        this.horizontal = horizontal;
+        this.chunkSize = chunkSize;
+        this.chunks = new SparseArray<>();
+    }
+
+    /**
+     * draw chunks covering [start, end) along the strip, record the missing or invalid ones
+     *
+     * @param thickness size of the strip across it
+     */
+    void draw(Canvas canvas, int start, int end, int thickness) {
+        if (end <= start || thickness <= 0)
+            return;
+
+        int first = Math.max(start, 0) / chunkSize;
+        int last = (end - 1) / chunkSize;
+        for (int i = first; i <= last; i++) {
+            Chunk chunk = chunks.get(i);
+            if (null == chunk) {
+                chunk = new Chunk();
+                chunk.picture = new Picture();
+                chunks.put(i, chunk);
+            }
+            int offset = i * chunkSize;
+            if (!chunk.valid || chunk.thickness != thickness)
+                record(chunk, offset, thickness);
+
+            canvas.save();
+            if (horizontal)
+                canvas.translate(offset, 0);
+            else
+                canvas.translate(0, offset);
+            canvas.drawPicture(chunk.picture);
+            canvas.restore();
+        }
+    }
+
+    private void record(Chunk chunk, int offset, int thickness) {
+        Canvas canvas;
+        if (horizontal) {
+            canvas = chunk.picture.beginRecording(chunkSize, thickness);
+            canvas.translate(-offset, 0);
+            canvas.clipRect(offset, 0, offset + chunkSize, thickness);
+        } else {
+            canvas = chunk.picture.beginRecording(thickness, chunkSize);
+            canvas.translate(0, -offset);
+            canvas.clipRect(0, offset, thickness, offset + chunkSize);
+        }
+        renderer.renderChunk(canvas);
+        chunk.picture.endRecording();
+        chunk.thickness = thickness;
+        chunk.valid = true;
+    }
+
+    /**
+     * invalidate chunks intersecting [start, end] along the strip
+     */
+    void invalidate(int start, int end) {
+        if (end < 0)
+            return;
+        int first = Math.max(start, 0) / chunkSize;
+        int last = end / chunkSize;
+        int size = chunks.size();
+        for (int i = 0; i < size; i++) {
+            int index = chunks.keyAt(i);
+            if (index >= first && index <= last)
+                chunks.valueAt(i).valid = false;
+        }
+    }
+
+    void invalidateAll() {
+        int size = chunks.size();
+        for (int i = 0; i < size; i++)
+            chunks.valueAt(i).valid = false;
+    }
+
+    /**
+     * release all recorded pictures
+     */
+    void clear() {
+        chunks.clear();
+    }
+
+    private static class Chunk {
+        Picture picture;
+        int thickness;
+        boolean valid;
+    }
+}
@@ -0,0 +1,87 @@
+package com.hzn.library.table;
+
+/**
+ * Fixed size bit set of rows, with rank and select, so that rows shown by a
+ * filter are mapped to and from rows of the whole table in O(log n) without
+ * an index for each row. {@link #build()} should be called after bits are set.
+ * <br/>
+ * Created by huzn on 2017/10/23.
+ */
+class RowBitSet {
+
+    private final int size;
+    private final long[] words;
+    // set bits before each word
+    private final int[] ranks;
+    private int count;
+
+    RowBitSet(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+        this.ranks = new int[words.length];
+    }
+
+    void set(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * count ranks of words, called after bits are set
+     */
+    void build() {
+        int rank = 0;
+        for (int w = 0; w < words.length; w++) {
+            ranks[w] = rank;
+            rank += Long.bitCount(words[w]);
+        }
+        count = rank;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return count of set bits
+     */
+    int cardinality() {
+        return count;
+    }
+
+    /**
+     * @return count of set bits in [0, index)
+     */
+    int rank(int index) {
+        int w = index >>> 6;
+        if (w >= words.length)
+            return count;
+        int bit = index & 63;
+        long mask = bit == 0 ? 0L : -1L >>> (64 - bit);
+        return ranks[w] + Long.bitCount(words[w] & mask);
+    }
+
+    /**
+     * @return index of the k-th set bit, k is from 0 to cardinality-1
+     */
+    int select(int k) {
+        // the last word whose rank is not greater than k
+        int low = 0;
+        int high = words.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (ranks[mid] <= k)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+
+        long word = words[low];
+        for (int i = k - ranks[low]; i > 0; i--)
+            word &= word - 1; // clear the lowest set bit
+        return (low << 6) + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,21 @@
+package com.hzn.library.table;
+
+/**
+ * Predicate of rows shown by the table, evaluated on the sort executor
+ * with a snapshot of texts, see {@link EasyTableView#filterRows(RowFilter)}.
+ * <br/>
+ * Created by huzn on 2017/10/23.
+ */
+public interface RowFilter {
+
+    /**
+     * whether to show the row, called on a background thread,
+     * so the table and cells should not be accessed
+     *
+     * @param row   row in the whole table, the header row is always shown
+     * @param texts the first text line of each cell in the row, null for cells
+     *              without texts, the array is reused for the next row
+     * @return true to show the row
+     */
+    boolean accept(int row, String[] texts);
+}
@@ -0,0 +1,214 @@
+package com.hzn.library.table;
+
+/**
+ * Only cells set by data are kept, in a hash map by cellKey, so that memory
+ * scales with the populated cells rather than the whole table. Empty cells
+ * share one read-only instance, and are handed out as copies to users.
+ * <br/>
+ * Created by huzn on 2017/10/21.
+ */
+class SparseCellStore extends CellStore {
+
+    private final CellRecycler cellRecycler;
+    // shared by all empty cells
+    private final CellInfo emptyCell;
+    private LongHashMap<CellInfo> cells;
+
+    SparseCellStore(CellRecycler cellRecycler) {
+        this.cellRecycler = cellRecycler;
+        this.emptyCell = new CellInfo();
+        this.emptyCell.readOnly = true;
+        this.cells = new LongHashMap<>();
+    }
+
+    @Override
+    void reset(int rows, int lines) {
+        recycleAll();
+        cells.clear();
+        clearRowOrder();
+        this.rows = rows;
+        this.lines = lines;
+    }
+
+    private void recycleAll() {
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++)
+            cellRecycler.recycle(cells.valueAt(i));
+    }
+
+    @Override
+    TextSnapshot snapshotTexts() {
+        // slots of the populated cells are copied, the map is changed in place while cells are set
+        final LongHashMap<CellInfo> snapshot = cells.copy();
+        return new TextSnapshot(rowOrder) {
+            @Override
+            String firstText(int position, int line) {
+                return firstText(snapshot.get(EasyTableView.cellKey(storageRow(position), line)));
+            }
+        };
+    }
+
+    @Override
+    CellInfo get(int row, int line) {
+        CellInfo cellInfo = cells.get(EasyTableView.cellKey(storageRow(row), line));
+        if (null != cellInfo)
+            return cellInfo;
+
+        // size of the empty cell may be left by layout of another one
+        emptyCell.width = -1.0f;
+        emptyCell.height = -1.0f;
+        return emptyCell;
+    }
+
+    @Override
+    CellInfo export(int row, int line) {
+        CellInfo cellInfo = cells.get(EasyTableView.cellKey(storageRow(row), line));
+        return null == cellInfo ? new CellInfo() : cellInfo;
+    }
+
+    @Override
+    void set(int row, int line, CellInfo cellInfo) {
+        CellInfo old = cells.put(EasyTableView.cellKey(storageRow(row), line), cellInfo);
+        if (old != cellInfo)
+            cellRecycler.recycle(old);
+    }
+
+    @Override
+    void clearTextCaches() {
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++) {
+            CellInfo cellInfo = cells.valueAt(i);
+            if (null != cellInfo) {
+                cellInfo.styleId = -1;
+                cellInfo.textWidths = null;
+            }
+        }
+    }
+
+    @Override
+    void markStyles(boolean[] used) {
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++) {
+            CellInfo cellInfo = cells.valueAt(i);
+            if (null != cellInfo && cellInfo.styleId >= 0)
+                used[cellInfo.styleId] = true;
+        }
+    }
+
+    @Override
+    void remapStyles(int[] newIds) {
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++) {
+            CellInfo cellInfo = cells.valueAt(i);
+            if (null != cellInfo && cellInfo.styleId >= 0)
+                cellInfo.styleId = newIds[cellInfo.styleId];
+        }
+    }
+
+    @Override
+    boolean keepsInstances() {
+        return true;
+    }
+
+    @Override
+    void insertRows(int row, int count) {
+        rekey(row, Integer.MAX_VALUE, count, 0);
+        rows += count;
+    }
+
+    @Override
+    void removeRows(int start, int end) {
+        int count = end - start + 1;
+        removeCells(start, end, 0, lines - 1);
+        rekey(end + 1, Integer.MAX_VALUE, -count, 0);
+        rows -= count;
+    }
+
+    @Override
+    void insertLines(int line, int count) {
+        rekey(0, line, 0, count);
+        lines += count;
+    }
+
+    @Override
+    void removeLines(int start, int end) {
+        int count = end - start + 1;
+        removeCells(0, rows - 1, start, end);
+        rekey(0, end + 1, 0, -count);
+        lines -= count;
+    }
+
+    @Override
+    void permuteRows(int[] order) {
+        // the new row of each row in storage
+        int[] newRows = new int[rows];
+        for (int r = 0; r < rows; r++)
+            newRows[order[r]] = r;
+
+        LongHashMap<CellInfo> newCells = new LongHashMap<>(cells.size());
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++) {
+            CellInfo cellInfo = cells.valueAt(i);
+            if (null == cellInfo)
+                continue;
+            long key = cells.keyAt(i);
+            newCells.put(EasyTableView.cellKey(newRows[(int) (key >> 32)], (int) key), cellInfo);
+        }
+        cells = newCells;
+    }
+
+    @Override
+    void moveLines(int from, int to, int count) {
+        LongHashMap<CellInfo> newCells = new LongHashMap<>(cells.size());
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++) {
+            CellInfo cellInfo = cells.valueAt(i);
+            if (null == cellInfo)
+                continue;
+            long key = cells.keyAt(i);
+            int row = (int) (key >> 32);
+            int line = movedIndex((int) key, from, to, count);
+            newCells.put(EasyTableView.cellKey(row, line), cellInfo);
+        }
+        cells = newCells;
+    }
+
+    // remove and recycle cells in the area
+    private void removeCells(int startRow, int endRow, int startLine, int endLine) {
+        LongHashMap<CellInfo> newCells = new LongHashMap<>(cells.size());
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++) {
+            CellInfo cellInfo = cells.valueAt(i);
+            if (null == cellInfo)
+                continue;
+            long key = cells.keyAt(i);
+            int row = (int) (key >> 32);
+            int line = (int) key;
+            if (row >= startRow && row <= endRow && line >= startLine && line <= endLine)
+                cellRecycler.recycle(cellInfo);
+            else
+                newCells.put(key, cellInfo);
+        }
+        cells = newCells;
+    }
+
+    // move cells at or below fromRow and at or right of fromLine by the offsets
+    private void rekey(int fromRow, int fromLine, int rowOffset, int lineOffset) {
+        LongHashMap<CellInfo> newCells = new LongHashMap<>(cells.size());
+        int capacity = cells.capacity();
+        for (int i = 0; i < capacity; i++) {
+            CellInfo cellInfo = cells.valueAt(i);
+            if (null == cellInfo)
+                continue;
+            long key = cells.keyAt(i);
+            int row = (int) (key >> 32);
+            int line = (int) key;
+            if (row >= fromRow)
+                row += rowOffset;
+            if (line >= fromLine)
+                line += lineOffset;
+            newCells.put(EasyTableView.cellKey(row, line), cellInfo);
+        }
+        cells = newCells;
+    }
+}
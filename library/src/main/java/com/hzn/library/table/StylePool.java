@@ -0,0 +1,166 @@
+package com.hzn.library.table;
+
+import android.graphics.Typeface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Interned styles of a table, equal styles get the same id. Looking up an
+ * existing style allocates nothing, a new style is created only while it is
+ * missing. Styles are released while data of the table is replaced, or
+ * compacted while they are no longer used, which changes their ids.
+ * <br/>
+ * Created by huzn on 2017/10/22.
+ */
+class StylePool {
+
+    private final ArrayList<CellStyle> styles;
+    // ids of styles by hash, with open addressing and linear probing, -1 for empty slots
+    private int[] slots;
+
+    StylePool() {
+        this.styles = new ArrayList<>();
+        this.slots = new int[16];
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * get id of the style, the style is added while it is missing
+     */
+    int obtain(CellStyle style) {
+        int id = find(style.getTextColor(), style.getTextColors(), style.getTextSize(), style.getTextSizes(),
+                style.getTypeface(), style.getAlign(), style.hashCode());
+        return id >= 0 ? id : add(style);
+    }
+
+    /**
+     * get id of the style, while text color or size is not set by the style, such as
+     * null or empty textColors, the default one of the table is taken instead, so that
+     * texts are still drawn, a style with the defaults is added only while it is missing
+     */
+    int obtain(CellStyle style, int defaultTextColor, int defaultTextSize) {
+        int textColor = style.getTextColor();
+        int[] textColors = style.getTextColors();
+        int textSize = style.getTextSize();
+        int[] textSizes = style.getTextSizes();
+        boolean noColor = textColor == 0 && null == textColors;
+        boolean noSize = textSize == -1 && null == textSizes;
+        if (!noColor && !noSize)
+            return obtain(style);
+
+        if (noColor)
+            textColor = defaultTextColor;
+        if (noSize)
+            textSize = defaultTextSize;
+        Typeface typeface = style.getTypeface();
+        int align = style.getAlign();
+        int hash = CellStyle.hash(textColor, textColors, textSize, textSizes, typeface, align);
+        int id = find(textColor, textColors, textSize, textSizes, typeface, align, hash);
+        if (id >= 0)
+            return id;
+        return add(new CellStyle(textColor, textColors, textSize, textSizes, typeface, align));
+    }
+
+    /**
+     * get id of the style with text colors and sizes of a cell, centered with the
+     * default typeface, textColor covers textColors if it is set, the same with
+     * textSize and textSizes
+     */
+    int obtain(int textColor, int[] textColors, int textSize, int[] textSizes) {
+        if (textColor != 0 || (null != textColors && textColors.length == 0))
+            textColors = null;
+        if (textSize != -1 || (null != textSizes && textSizes.length == 0))
+            textSizes = null;
+        int hash = CellStyle.hash(textColor, textColors, textSize, textSizes, null, CellStyle.ALIGN_CENTER);
+        int id = find(textColor, textColors, textSize, textSizes, null, CellStyle.ALIGN_CENTER, hash);
+        if (id >= 0)
+            return id;
+        return add(new CellStyle(textColor, textColors, textSize, textSizes, null, CellStyle.ALIGN_CENTER));
+    }
+
+    /**
+     * @return the style of id, null while id is illegal
+     */
+    CellStyle get(int id) {
+        return id >= 0 && id < styles.size() ? styles.get(id) : null;
+    }
+
+    int size() {
+        return styles.size();
+    }
+
+    /**
+     * remove all styles, ids obtained before are illegal
+     */
+    void clear() {
+        styles.clear();
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * remove styles which are not used, the remaining styles get new ids in the same order
+     *
+     * @param used whether the style of each id is used
+     * @return new id of each original id, -1 for the removed styles
+     */
+    int[] compact(boolean[] used) {
+        int size = styles.size();
+        int[] newIds = new int[size];
+        int count = 0;
+        for (int id = 0; id < size; id++) {
+            if (used[id]) {
+                styles.set(count, styles.get(id));
+                newIds[id] = count++;
+            } else {
+                newIds[id] = -1;
+            }
+        }
+        styles.subList(count, size).clear();
+        rehash(slots.length);
+        return newIds;
+    }
+
+    private int find(int textColor, int[] textColors, int textSize, int[] textSizes,
+                     Typeface typeface, int align, int hash) {
+        int mask = slots.length - 1;
+        int i = spread(hash) & mask;
+        while (slots[i] >= 0) {
+            CellStyle style = styles.get(slots[i]);
+            if (style.hashCode() == hash && style.equals(textColor, textColors, textSize, textSizes, typeface, align))
+                return slots[i];
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int add(CellStyle style) {
+        int id = styles.size();
+        styles.add(style);
+        if (styles.size() > slots.length * 3 / 4)
+            rehash(slots.length << 1);
+        else
+            put(slots, id, style.hashCode());
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, -1);
+        int size = styles.size();
+        for (int id = 0; id < size; id++)
+            put(slots, id, styles.get(id).hashCode());
+    }
+
+    private static void put(int[] slots, int id, int hash) {
+        int mask = slots.length - 1;
+        int i = spread(hash) & mask;
+        while (slots[i] >= 0)
+            i = (i + 1) & mask;
+        slots[i] = id;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,49 @@
+package com.hzn.library.table;
+
+/**
+ * Data source of the table, cells are bound on demand while they are about
+ * to be drawn or hit, so that memory scales with the visible cells rather than
+ * the whole data set, see {@link EasyTableView#setAdapter(TableAdapter)}.
+ * <br/>
+ * Created by huzn on 2017/10/20.
+ */
+public interface TableAdapter {
+
+    /**
+     * @return total rows of the table
+     */
+    int getRowCount();
+
+    /**
+     * @return total lines of the table
+     */
+    int getLineCount();
+
+    /**
+     * bind data of the cell at row and line, such as texts, colors and type,
+     * row, line and coordinate of the cell are set by the table
+     *
+     * @param cellInfo cell to bind, with default values
+     * @param row      row of the cell
+     * @param line     line of the cell
+     */
+    void onBindCell(CellInfo cellInfo, int row, int line);
+
+    /**
+     * size hint of a row, so that cells are not bound to measure the table
+     *
+     * @param row row
+     * @return height of the row(px), or a negative value to measure it by
+     * the cell in the first line of the row, grown while a higher cell of it is bound
+     */
+    float getRowHeight(int row);
+
+    /**
+     * size hint of a line, so that cells are not bound to measure the table
+     *
+     * @param line line
+     * @return width of the line(px), or a negative value to measure it by
+     * the cell in the first row of the line, grown while a wider cell of it is bound
+     */
+    float getLineWidth(int line);
+}
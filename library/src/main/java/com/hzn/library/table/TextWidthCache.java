@@ -0,0 +1,148 @@
+package com.hzn.library.table;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of measured text widths, keyed by text, text size and typeface,
+ * so that texts which do not change are not measured again while data of
+ * table is set or updated.
+ * <br/>
+ * Created by huzn on 2017/10/17.
+ */
+class TextWidthCache {
+
+    static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final Paint paint;
+    private final LruMap lruMap;
+    // reused key for looking up, a new key is created only while missing
+    private final Key lookupKey;
+
+    private int maxSize;
+    private int hitCount;
+    private int missCount;
+
+    TextWidthCache(Paint paint, int maxSize) {
+        this.paint = paint;
+        this.maxSize = maxSize;
+        this.lruMap = new LruMap();
+        this.lookupKey = new Key();
+    }
+
+    /**
+     * get width of the text, measured by the paint only while missing
+     *
+     * @param typeface typeface of the text, null for the default one
+     */
+    float getWidth(String text, int textSize, Typeface typeface) {
+        if (null == text || text.length() == 0)
+            return 0.0f;
+
+        lookupKey.set(text, textSize, typeface);
+        Float width = lruMap.get(lookupKey);
+        if (null != width) {
+            ++hitCount;
+            return width;
+        }
+
+        ++missCount;
+        float originTextSize = paint.getTextSize();
+        Typeface originTypeface = paint.getTypeface();
+        paint.setTextSize(textSize);
+        paint.setTypeface(typeface);
+        float measuredWidth = paint.measureText(text);
+        paint.setTextSize(originTextSize);
+        paint.setTypeface(originTypeface);
+
+        if (maxSize > 0) {
+            Key key = new Key();
+            key.set(text, textSize, typeface);
+            lruMap.put(key, measuredWidth);
+        }
+        return measuredWidth;
+    }
+
+    /**
+     * get widths of each text line with the style, reuse the widths array if its size fits
+     */
+    float[] getWidths(String[] texts, CellStyle style, float[] widths) {
+        int textRows = texts.length;
+        if (null == widths || widths.length != textRows)
+            widths = new float[textRows];
+        for (int t = 0; t < textRows; t++)
+            widths[t] = getWidth(texts[t], style.getTextSize(t), style.getTypeface());
+        return widths;
+    }
+
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        lruMap.trim();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    int getMissCount() {
+        return missCount;
+    }
+
+    @SuppressWarnings("serial")
+    private final class LruMap extends LinkedHashMap<Key, Float> {
+
+        LruMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Float> eldest) {
+            return size() > maxSize;
+        }
+
+        // remove the eldest entries while the max size is reduced
+        void trim() {
+            while (size() > maxSize)
+                remove(keySet().iterator().next());
+        }
+    }
+
+    private static final class Key {
+        String text;
+        int textSize;
+        Typeface typeface;
+        int hash;
+
+        void set(String text, int textSize, Typeface typeface) {
+            this.text = text;
+            this.textSize = textSize;
+            this.typeface = typeface;
+            int h = text.hashCode();
+            h = 31 * h + textSize;
+            h = 31 * h + (null == typeface ? 0 : System.identityHashCode(typeface));
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return textSize == key.textSize && typeface == key.typeface && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.hzn.library.table;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+/**
+ * LRU cache of fixed-size bitmap tiles, each tile is rendered once and then
+ * drawn as a bitmap until it is invalidated. Tiles used by the current frame
+ * are never evicted, others are evicted while the memory budget is exceeded.
+ * <br/>
+ * Created by huzn on 2017/10/18.
+ */
+class TileCache {
+
+    static final int DEFAULT_TILE_SIZE = 256;
+    static final int DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+    // bitmaps of evicted tiles kept for reusing
+    private static final int MAX_SPARE_BITMAPS = 4;
+
+    /**
+     * render content of a tile, canvas is translated and clipped to the tile
+     */
+    interface TileRenderer {
+        void renderTile(Canvas canvas);
+    }
+
+    private final TileRenderer renderer;
+    private final LongHashMap<Tile> tileMap;
+    private final Canvas tileCanvas;
+    private final Bitmap[] spareBitmaps;
+    private int spareCount;
+
+    // the most recently used tile is the head
+    private Tile head;
+    private Tile tail;
+
+    private int tileSize;
+    private long maxBytes;
+    private long usedBytes;
+    private int frame;
+
+    TileCache(TileRenderer renderer, int tileSize, long maxBytes) {
+        this.renderer = renderer;
+        this.tileSize = tileSize;
+        this.maxBytes = maxBytes;
+        this.tileMap = new LongHashMap<>();
+        this.tileCanvas = new Canvas();
+        this.spareBitmaps = new Bitmap[MAX_SPARE_BITMAPS];
+    }
+
+    /**
+     * draw tiles covering the visible area, render the missing or invalid ones
+     */
+    void draw(Canvas canvas, int left, int top, int right, int bottom, int width, int height) {
+        if (width <= 0 || height <= 0)
+            return;
+
+        ++frame;
+        int startCol = Math.max(left, 0) / tileSize;
+        int endCol = (Math.min(right, width) - 1) / tileSize;
+        int startRow = Math.max(top, 0) / tileSize;
+        int endRow = (Math.min(bottom, height) - 1) / tileSize;
+        for (int r = startRow; r <= endRow; r++) {
+            for (int c = startCol; c <= endCol; c++) {
+                Tile tile = obtainTile(r, c);
+                tile.frame = frame;
+                canvas.drawBitmap(tile.bitmap, c * tileSize, r * tileSize, null);
+            }
+        }
+        trim();
+    }
+
+    // get the tile from cache, render it while missing or invalid
+    private Tile obtainTile(int row, int col) {
+        long key = ((long) row << 32) | (col & 0xffffffffL);
+        Tile tile = tileMap.get(key);
+        if (null == tile) {
+            tile = new Tile();
+            tile.key = key;
+            tile.row = row;
+            tile.col = col;
+            tile.bitmap = obtainBitmap();
+            tile.valid = false;
+            usedBytes += tile.bitmap.getByteCount();
+            tileMap.put(key, tile);
+        } else {
+            unlink(tile);
+        }
+        linkHead(tile);
+
+        if (!tile.valid) {
+            tile.bitmap.eraseColor(Color.TRANSPARENT);
+            tileCanvas.setBitmap(tile.bitmap);
+            tileCanvas.save();
+            tileCanvas.translate(-col * tileSize, -row * tileSize);
+            tileCanvas.clipRect(col * tileSize, row * tileSize, (col + 1) * tileSize, (row + 1) * tileSize);
+            renderer.renderTile(tileCanvas);
+            tileCanvas.restore();
+            tileCanvas.setBitmap(null);
+            tile.valid = true;
+        }
+        return tile;
+    }
+
+    private Bitmap obtainBitmap() {
+        if (spareCount > 0) {
+            Bitmap bitmap = spareBitmaps[--spareCount];
+            spareBitmaps[spareCount] = null;
+            return bitmap;
+        }
+        return Bitmap.createBitmap(tileSize, tileSize, Bitmap.Config.ARGB_8888);
+    }
+
+    // evict the least recently used tiles while exceeding the memory budget,
+    // except tiles used by the current frame
+    private void trim() {
+        while (usedBytes > maxBytes && null != tail && tail.frame != frame)
+            evict(tail);
+    }
+
+    private void evict(Tile tile) {
+        unlink(tile);
+        tileMap.remove(tile.key);
+        usedBytes -= tile.bitmap.getByteCount();
+        if (spareCount < MAX_SPARE_BITMAPS && tile.bitmap.getWidth() == tileSize)
+            spareBitmaps[spareCount++] = tile.bitmap;
+        else
+            tile.bitmap.recycle();
+        tile.bitmap = null;
+    }
+
+    /**
+     * invalidate tiles intersecting the area, they will be rendered again while drawn
+     */
+    void invalidate(float left, float top, float right, float bottom) {
+        if (right < 0 || bottom < 0)
+            return;
+        int startCol = (int) Math.max(left, 0) / tileSize;
+        int endCol = (int) right / tileSize;
+        int startRow = (int) Math.max(top, 0) / tileSize;
+        int endRow = (int) bottom / tileSize;
+        // traverse tiles in cache while the area is larger than the cache
+        if ((long) (endCol - startCol + 1) * (endRow - startRow + 1) > tileMap.size()) {
+            for (Tile tile = head; null != tile; tile = tile.next)
+                if (tile.col >= startCol && tile.col <= endCol && tile.row >= startRow && tile.row <= endRow)
+                    tile.valid = false;
+            return;
+        }
+        for (int r = startRow; r <= endRow; r++) {
+            for (int c = startCol; c <= endCol; c++) {
+                Tile tile = tileMap.get(((long) r << 32) | (c & 0xffffffffL));
+                if (null != tile)
+                    tile.valid = false;
+            }
+        }
+    }
+
+    /**
+     * invalidate all tiles, bitmaps are kept for rendering again
+     */
+    void invalidateAll() {
+        for (Tile tile = head; null != tile; tile = tile.next)
+            tile.valid = false;
+    }
+
+    /**
+     * release all tiles and bitmaps
+     */
+    void clear() {
+        while (null != tail)
+            evict(tail);
+        for (int i = 0; i < spareCount; i++) {
+            spareBitmaps[i].recycle();
+            spareBitmaps[i] = null;
+        }
+        spareCount = 0;
+    }
+
+    void setTileSize(int tileSize) {
+        if (this.tileSize == tileSize)
+            return;
+        clear();
+        this.tileSize = tileSize;
+    }
+
+    int getTileSize() {
+        return tileSize;
+    }
+
+    void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        while (usedBytes > maxBytes && null != tail)
+            evict(tail);
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private void linkHead(Tile tile) {
+        tile.prev = null;
+        tile.next = head;
+        if (null != head)
+            head.prev = tile;
+        head = tile;
+        if (null == tail)
+            tail = tile;
+    }
+
+    private void unlink(Tile tile) {
+        if (null != tile.prev)
+            tile.prev.next = tile.next;
+        else
+            head = tile.next;
+        if (null != tile.next)
+            tile.next.prev = tile.prev;
+        else
+            tail = tile.prev;
+        tile.prev = null;
+        tile.next = null;
+    }
+
+    private static class Tile {
+        long key;
+        int row;
+        int col;
+        Bitmap bitmap;
+        boolean valid;
+        // the last frame drawing this tile
+        int frame;
+        Tile prev;
+        Tile next;
+    }
+}
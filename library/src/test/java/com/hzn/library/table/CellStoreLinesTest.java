@@ -0,0 +1,110 @@
+package com.hzn.library.table;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Inserting, removing and moving lines of every cell store, compared with a reference grid.
+ */
+public class CellStoreLinesTest {
+
+    @Test
+    public void moveLines_everyRange() throws Exception {
+        int lines = 6;
+        for (int storeMode : StoreModel.STORE_MODES) {
+            for (int count = 1; count <= lines; count++) {
+                for (int from = 0; from + count <= lines; from++) {
+                    // including targets overlapping the moved lines
+                    for (int to = 0; to + count <= lines; to++) {
+                        StoreModel model = new StoreModel(storeMode, 3, lines);
+                        model.fill();
+                        model.moveLines(from, to, count);
+                        model.assertMatches("from " + from + " to " + to + " count " + count);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void moveLines_thenSetAndInsert() throws Exception {
+        for (int storeMode : StoreModel.STORE_MODES) {
+            StoreModel model = new StoreModel(storeMode, 4, 5);
+            model.fill();
+            model.moveLines(0, 3, 2);
+            model.moveLines(4, 1, 1);
+            // cells set after moving are found by the moved lines
+            model.set(2, 0);
+            model.set(3, 4);
+            model.assertMatches("moved");
+            model.insertLines(2, 2);
+            model.set(1, 2);
+            model.assertMatches("inserted");
+            model.moveLines(1, 4, 3);
+            model.removeLines(0, 1);
+            model.assertMatches("removed");
+        }
+    }
+
+    @Test
+    public void insertLines_growsWithoutFreeSlots() throws Exception {
+        for (int storeMode : StoreModel.STORE_MODES) {
+            // no free slots after reset
+            StoreModel model = new StoreModel(storeMode, 3, 2);
+            model.fill();
+            for (int i = 0; i < 20; i++) {
+                model.insertLines(i % 2 == 0 ? 0 : model.lines(), 1);
+                model.assertMatches("inserted " + i);
+                model.set(i % 3, i % 2 == 0 ? 0 : model.lines() - 1);
+            }
+            model.insertLines(5, 7);
+            model.assertMatches("inserted 7");
+        }
+    }
+
+    @Test
+    public void insertLines_reusesRemovedSlotsAsEmpty() throws Exception {
+        for (int storeMode : StoreModel.STORE_MODES) {
+            StoreModel model = new StoreModel(storeMode, 3, 6);
+            model.fill();
+            model.removeLines(1, 3);
+            model.assertMatches("removed");
+            // cells of the removed lines are not found in the new ones
+            model.insertLines(2, 4);
+            model.assertMatches("inserted");
+            model.fill();
+            model.removeLines(0, 5);
+            model.insertLines(0, 2);
+            model.assertMatches("reinserted");
+        }
+    }
+
+    @Test
+    public void randomChanges() throws Exception {
+        for (int storeMode : StoreModel.STORE_MODES) {
+            Random random = new Random(storeMode);
+            StoreModel model = new StoreModel(storeMode, 5, 4);
+            model.fill();
+            for (int i = 0; i < 2000; i++) {
+                int lines = model.lines();
+                int op = random.nextInt(5);
+                String message = "step " + i + " op " + op;
+                if (op == 0) {
+                    model.set(random.nextInt(model.rows()), random.nextInt(lines));
+                } else if (op == 1 && lines < 16) {
+                    model.insertLines(random.nextInt(lines + 1), 1 + random.nextInt(3));
+                } else if (op == 2 && lines > 2) {
+                    int start = random.nextInt(lines - 1);
+                    model.removeLines(start, start + random.nextInt(Math.min(3, lines - 1 - start)));
+                } else if (op == 3) {
+                    int count = 1 + random.nextInt(lines);
+                    model.moveLines(random.nextInt(lines - count + 1), random.nextInt(lines - count + 1), count);
+                } else if (op == 4 && model.rows() < 12) {
+                    model.insertRows(random.nextInt(model.rows() + 1), 1);
+                }
+                model.assertMatches(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.hzn.library.table;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Inserting and removing rows of every cell store, moving the gap of the object store
+ * between the head, the middle and the tail, compared with a reference grid.
+ */
+public class CellStoreRowsTest {
+
+    private static final int LINES = 3;
+
+    @Test
+    public void insertAndRemove_atHeadMiddleAndTail() throws Exception {
+        for (int storeMode : StoreModel.STORE_MODES) {
+            StoreModel model = new StoreModel(storeMode, 4, LINES);
+            model.fill();
+            for (int i = 0; i < 30; i++) {
+                int rows = model.rows();
+                int row = i % 3 == 0 ? 0 : i % 3 == 1 ? rows / 2 : rows;
+                model.insertRows(row, 1 + i % 4);
+                model.assertMatches("inserted " + i + " at " + row);
+                model.set(row, i % LINES);
+            }
+            for (int i = 0; model.rows() > 2; i++) {
+                int rows = model.rows();
+                int count = Math.min(1 + i % 3, rows - 1);
+                int start = i % 3 == 0 ? 0 : i % 3 == 1 ? (rows - count) / 2 : rows - count;
+                model.removeRows(start, start + count - 1);
+                model.assertMatches("removed " + i + " at " + start);
+            }
+        }
+    }
+
+    @Test
+    public void insertAndRemove_alternatingEnds() throws Exception {
+        for (int storeMode : StoreModel.STORE_MODES) {
+            StoreModel model = new StoreModel(storeMode, 1, LINES);
+            model.fill();
+            // the gap is moved across the whole buffer at every step
+            for (int i = 0; i < 40; i++) {
+                int row = i % 2 == 0 ? 0 : model.rows();
+                model.insertRows(row, 2);
+                model.set(row + 1, 0);
+                model.removeRows(i % 2 == 0 ? model.rows() - 1 : 0, i % 2 == 0 ? model.rows() - 1 : 0);
+                model.assertMatches("step " + i);
+            }
+        }
+    }
+
+    @Test
+    public void randomChanges() throws Exception {
+        for (int storeMode : StoreModel.STORE_MODES) {
+            Random random = new Random(storeMode);
+            StoreModel model = new StoreModel(storeMode, 6, LINES);
+            model.fill();
+            for (int i = 0; i < 2000; i++) {
+                int rows = model.rows();
+                int op = random.nextInt(3);
+                if (op == 0) {
+                    model.set(random.nextInt(rows), random.nextInt(LINES));
+                } else if (op == 1 && rows < 40) {
+                    model.insertRows(random.nextInt(rows + 1), 1 + random.nextInt(4));
+                } else if (op == 2 && rows > 2) {
+                    int start = random.nextInt(rows - 1);
+                    model.removeRows(start, start + random.nextInt(Math.min(4, rows - 1 - start)));
+                }
+                model.assertMatches("step " + i + " op " + op);
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.hzn.library.table;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.View;
+
+import com.hzn.library.BuildConfig;
+import com.hzn.library.decoration.CircleDecoration;
+import com.hzn.library.decoration.RangeDecoration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowPath;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Make sure that drawing the table, including the default decorations,
+ * allocates nothing once data is set and the first frame is drawn,
+ * in every render mode and store mode.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23, shadows = DrawAllocationTest.NoAllocShadowPath.class)
+public class DrawAllocationTest {
+
+    private static final int ROWS = 40;
+    private static final int LINES = 12;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int WARM_UP_FRAMES = 100;
+    private static final int FRAMES = 200;
+
+    private EasyTableView table;
+    private ArrayList<CellInfo> cellInfoList;
+    private CountingCanvas canvas;
+
+    @Before
+    public void setUp() throws Exception {
+        table = new EasyTableView(RuntimeEnvironment.application);
+
+        cellInfoList = new ArrayList<>();
+        for (int r = 0; r < ROWS; r++) {
+            for (int l = 0; l < LINES; l++) {
+                CellInfo cellInfo = new CellInfo();
+                cellInfo.row = r;
+                cellInfo.line = l;
+                cellInfo.bgColor = (r + l) % 3 == 0 ? Color.YELLOW : 0;
+                cellInfo.texts = new String[]{"R" + r, "L" + l};
+                cellInfo.textSizes = new int[]{24, 18};
+                cellInfo.textColors = new int[]{Color.BLACK, Color.RED};
+                cellInfoList.add(cellInfo);
+            }
+        }
+        table.setData(ROWS, LINES, cellInfoList);
+
+        MergeInfo mergeInfo = new MergeInfo();
+        mergeInfo.startRow = 1;
+        mergeInfo.startLine = 1;
+        mergeInfo.endRow = 3;
+        mergeInfo.endLine = 4;
+        mergeInfo.texts = new String[]{"merged"};
+        table.mergeCells(mergeInfo);
+
+        List<CircleDecoration.CircleDecorationInfo> circles = new ArrayList<>();
+        CircleDecoration.CircleDecorationInfo circle = new CircleDecoration.CircleDecorationInfo();
+        circle.cellInfo = cellInfoList.get(LINES + 5);
+        circle.radius = 10.0f;
+        circles.add(circle);
+        table.setBottomDecorations(new CircleDecoration(circles));
+        table.setTopDecorations(new RangeDecoration(2 * LINES, 2 * LINES + 6, 10.0f, Color.BLUE, cellInfoList));
+
+        table.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        table.layout(0, 0, WIDTH, HEIGHT);
+
+        canvas = new CountingCanvas(0, 0, WIDTH, HEIGHT / 2);
+    }
+
+    @Test
+    public void onDraw_allocatesNothingInSteadyState() throws Exception {
+        assertDrawAllocatesNothing(canvas);
+    }
+
+    @Test
+    public void onDraw_packedStore_allocatesNothing() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_PACKED);
+        assertDrawAllocatesNothing(canvas);
+    }
+
+    @Test
+    public void onDraw_sparseStore_allocatesNothing() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_SPARSE);
+        assertDrawAllocatesNothing(canvas);
+    }
+
+    @Test
+    public void onDraw_pictureMode_allocatesNothing() throws Exception {
+        table.setRenderMode(EasyTableView.RENDER_MODE_PICTURE);
+        assertDrawAllocatesNothing(canvas);
+    }
+
+    @Test
+    public void onDraw_tileMode_allocatesNothing() throws Exception {
+        table.setRenderMode(EasyTableView.RENDER_MODE_TILE);
+        assertDrawAllocatesNothing(canvas);
+    }
+
+    @Test
+    public void onDraw_manyMergedCells_allocatesNothing() throws Exception {
+        // cells are sized explicitly, so that the clip covers only a few of them
+        for (CellInfo cellInfo : cellInfoList) {
+            cellInfo.width = WIDTH / LINES;
+            cellInfo.height = HEIGHT / ROWS;
+        }
+        table.updateData(cellInfoList);
+
+        // more merged cells than visible cells, so that they are found by the index
+        for (int r = 6; r + 1 < ROWS; r += 2) {
+            for (int l = 0; l + 1 < LINES; l += 2) {
+                MergeInfo mergeInfo = new MergeInfo();
+                mergeInfo.startRow = r;
+                mergeInfo.startLine = l;
+                mergeInfo.endRow = r + 1;
+                mergeInfo.endLine = l + 1;
+                mergeInfo.texts = new String[]{"M" + r, "M" + l};
+                table.mergeCells(mergeInfo);
+            }
+        }
+        assertDrawAllocatesNothing(new CountingCanvas(0, HEIGHT / 5, WIDTH / 4, HEIGHT / 5 + 40));
+    }
+
+    private void assertDrawAllocatesNothing(CountingCanvas canvas) {
+        // the first frames fill the caches, and let the test environment link its calls
+        // of shadowed graphics methods, which allocates during the first tens of frames
+        for (int i = 0; i < WARM_UP_FRAMES; i++)
+            table.onDraw(canvas);
+        assertTrue("nothing drawn", canvas.drawCount > 0);
+
+        long overhead = allocatedBytes() - allocatedBytes();
+        long start = allocatedBytes();
+        for (int i = 0; i < FRAMES; i++)
+            table.onDraw(canvas);
+        long allocated = allocatedBytes() - start + overhead;
+
+        // even a single small object per frame exceeds this
+        assertTrue("onDraw allocated " + allocated + " bytes in " + FRAMES + " frames",
+                allocated < FRAMES * 16);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Canvas with fixed clip bounds, only counting the drawing operations.
+     */
+    static class CountingCanvas extends Canvas {
+        private final int left;
+        private final int top;
+        private final int right;
+        private final int bottom;
+        int drawCount;
+
+        CountingCanvas(int left, int top, int right, int bottom) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        @Override
+        public boolean getClipBounds(Rect bounds) {
+            bounds.set(left, top, right, bottom);
+            return true;
+        }
+
+        @Override
+        public int save() {
+            return 1;
+        }
+
+        @Override
+        public void restore() {
+        }
+
+        @Override
+        public boolean clipRect(RectF rect) {
+            return true;
+        }
+
+        @Override
+        public boolean clipRect(float left, float top, float right, float bottom) {
+            return true;
+        }
+
+        @Override
+        public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawLines(float[] pts, int offset, int count, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawRect(RectF rect, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawPicture(Picture picture) {
+            ++drawCount;
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+            ++drawCount;
+        }
+    }
+
+    /**
+     * The default shadow of Path records points into lists, which is an allocation
+     * of the test environment rather than the table, so just ignore path operations.
+     * It extends the default shadow, which canvases recording pictures and tiles cast to.
+     */
+    @Implements(Path.class)
+    public static class NoAllocShadowPath extends ShadowPath {
+        @Implementation
+        public void reset() {
+        }
+
+        @Implementation
+        public void rewind() {
+        }
+
+        @Implementation
+        public void moveTo(float x, float y) {
+        }
+
+        @Implementation
+        public void lineTo(float x, float y) {
+        }
+
+        @Implementation
+        public void arcTo(RectF oval, float startAngle, float sweepAngle) {
+        }
+
+        @Implementation
+        public void close() {
+        }
+
+        @Implementation
+        public boolean isEmpty() {
+            return false;
+        }
+    }
+}
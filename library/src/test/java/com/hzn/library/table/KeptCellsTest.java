@@ -0,0 +1,114 @@
+package com.hzn.library.table;
+
+import android.app.Activity;
+
+import com.hzn.library.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Cells created by the table and handed out to users, such as a clicked empty cell,
+ * passed back by setData and updateData, in every store mode.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class KeptCellsTest {
+
+    private static final int ROWS = 4;
+    private static final int LINES = 3;
+
+    private EasyTableView table;
+
+    @Before
+    public void setUp() throws Exception {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        table = new EasyTableView(activity);
+        activity.setContentView(table);
+    }
+
+    // only the header row is set, other cells are empty ones created by the table
+    private void setHeader() {
+        ArrayList<CellInfo> cellInfoList = new ArrayList<>();
+        for (int l = 0; l < LINES; l++)
+            cellInfoList.add(cell(0, l, "h" + l));
+        table.setData(ROWS, LINES, cellInfoList);
+    }
+
+    private static CellInfo cell(int row, int line, String text) {
+        CellInfo cellInfo = new CellInfo();
+        cellInfo.row = row;
+        cellInfo.line = line;
+        cellInfo.width = 50.0f;
+        cellInfo.height = 20.0f;
+        cellInfo.texts = new String[]{text};
+        return cellInfo;
+    }
+
+    private void assertKept(String message, CellInfo kept) {
+        assertEquals(message, 2, kept.row);
+        assertEquals(message, 1, kept.line);
+        assertEquals(message, "kept", table.getCellInfo(2, 1).texts[0]);
+        assertEquals(message, "h0", table.getCellInfo(0, 0).texts[0]);
+    }
+
+    private void setData_withEmptyCell(int storeMode) {
+        table.setStoreMode(storeMode);
+        setHeader();
+        // an empty cell handed out by the table, as by onCellClick
+        CellInfo kept = table.getCellInfo(2, 1);
+        kept.texts = new String[]{"kept"};
+
+        ArrayList<CellInfo> cellInfoList = new ArrayList<>();
+        for (int l = 0; l < LINES; l++)
+            cellInfoList.add(cell(0, l, "h" + l));
+        cellInfoList.add(kept);
+        table.setData(cellInfoList);
+        assertKept("set", kept);
+        table.setData(ROWS, LINES, cellInfoList);
+        assertKept("set with size", kept);
+
+        // the kept cell is not reused by the table while it is replaced
+        table.updateData(cell(2, 1, "replaced"));
+        for (int r = 1; r < ROWS; r++)
+            for (int l = 0; l < LINES; l++)
+                table.getCellInfo(r, l);
+        assertEquals(2, kept.row);
+        assertEquals("kept", kept.texts[0]);
+    }
+
+    @Test
+    public void setData_withEmptyCell_objectStore() throws Exception {
+        setData_withEmptyCell(EasyTableView.STORE_MODE_OBJECT);
+    }
+
+    @Test
+    public void setData_withEmptyCell_packedStore() throws Exception {
+        setData_withEmptyCell(EasyTableView.STORE_MODE_PACKED);
+    }
+
+    @Test
+    public void setData_withEmptyCell_sparseStore() throws Exception {
+        setData_withEmptyCell(EasyTableView.STORE_MODE_SPARSE);
+    }
+
+    @Test
+    public void updateData_withEmptyCell() throws Exception {
+        setHeader();
+        CellInfo kept = table.getCellInfo(2, 1);
+        kept.texts = new String[]{"kept"};
+        table.updateData(kept);
+        assertKept("updated", kept);
+        table.updateData(cell(2, 1, "replaced"));
+        assertEquals("kept", kept.texts[0]);
+        assertEquals("replaced", table.getCellInfo(2, 1).texts[0]);
+    }
+}
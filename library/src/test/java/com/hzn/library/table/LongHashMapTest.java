@@ -0,0 +1,113 @@
+package com.hzn.library.table;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Mappings of LongHashMap compared with a HashMap, while entries in the same probe
+ * sequences are removed and shifted back, and while the map is resized.
+ */
+public class LongHashMapTest {
+
+    private static void assertMatches(String message, Map<Long, String> expected, LongHashMap<String> map,
+                                      long[] keys) {
+        assertEquals(message, expected.size(), map.size());
+        for (long key : keys)
+            assertEquals(message + ", key " + key, expected.get(key), map.get(key));
+
+        // iterating slots finds every mapping once
+        int count = 0;
+        for (int i = 0; i < map.capacity(); i++) {
+            String value = map.valueAt(i);
+            if (null != value) {
+                assertEquals(message, expected.get(map.keyAt(i)), value);
+                ++count;
+            }
+        }
+        assertEquals(message, expected.size(), count);
+    }
+
+    // keys of cells in a small area, so that most of them share probe sequences
+    private static long[] cellKeys(int rows, int lines) {
+        long[] keys = new long[rows * lines + 2];
+        for (int r = 0; r < rows; r++)
+            for (int l = 0; l < lines; l++)
+                keys[r * lines + l] = EasyTableView.cellKey(r, l);
+        keys[rows * lines] = Long.MIN_VALUE;
+        keys[rows * lines + 1] = -1L;
+        return keys;
+    }
+
+    @Test
+    public void removeFromProbeSequences() throws Exception {
+        long[] keys = cellKeys(4, 3);
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            // no more than the threshold of the minimum capacity, so that the map is not resized
+            LongHashMap<String> map = new LongHashMap<>(0);
+            Map<Long, String> expected = new HashMap<>();
+            for (long key : keys) {
+                if (expected.size() < 12 && random.nextBoolean()) {
+                    map.put(key, "v" + key);
+                    expected.put(key, "v" + key);
+                }
+            }
+            assertEquals(16, map.capacity());
+            for (int i = 0; i < 30; i++) {
+                long key = keys[random.nextInt(keys.length)];
+                assertEquals("seed " + seed, expected.remove(key), map.remove(key));
+                assertMatches("seed " + seed + " removed " + key, expected, map, keys);
+                if (expected.size() < 12) {
+                    key = keys[random.nextInt(keys.length)];
+                    assertEquals("seed " + seed, expected.put(key, "w" + i), map.put(key, "w" + i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void putAndRemove_whileResized() throws Exception {
+        long[] keys = cellKeys(40, 25);
+        Random random = new Random(1);
+        LongHashMap<String> map = new LongHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = keys[random.nextInt(keys.length)];
+            // grow at first, then shrink
+            if (random.nextInt(10) < (i < 10000 ? 7 : 3))
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            else
+                assertEquals(expected.remove(key), map.remove(key));
+            if (i % 500 == 0)
+                assertMatches("step " + i, expected, map, keys);
+        }
+        assertMatches("end", expected, map, keys);
+    }
+
+    @Test
+    public void copy_isIndependent() throws Exception {
+        LongHashMap<String> map = new LongHashMap<>();
+        for (int i = 0; i < 20; i++)
+            map.put(EasyTableView.cellKey(i, i), "v" + i);
+        LongHashMap<String> copy = map.copy();
+        map.remove(EasyTableView.cellKey(3, 3));
+        map.put(EasyTableView.cellKey(30, 0), "new");
+
+        assertEquals(20, copy.size());
+        assertEquals("v3", copy.get(EasyTableView.cellKey(3, 3)));
+        assertNull(copy.get(EasyTableView.cellKey(30, 0)));
+        for (int i = 0; i < 20; i++)
+            assertEquals("v" + i, copy.get(EasyTableView.cellKey(i, i)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void put_nullValue() throws Exception {
+        new LongHashMap<String>().put(1L, null);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hzn.library.table;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Rank and select of the bit set of shown rows, checked against counting bits one by one.
+ */
+public class RowBitSetTest {
+
+    @Test
+    public void emptySet_hasNoRanks() throws Exception {
+        for (int size : new int[]{0, 1, 63, 64, 65, 200}) {
+            RowBitSet bits = new RowBitSet(size);
+            bits.build();
+            assertEquals(size, bits.size());
+            assertEquals(0, bits.cardinality());
+            for (int i = 0; i <= size; i++)
+                assertEquals(0, bits.rank(i));
+        }
+    }
+
+    @Test
+    public void fullSet_selectsEveryRow() throws Exception {
+        for (int size : new int[]{1, 63, 64, 65, 128, 129}) {
+            RowBitSet bits = new RowBitSet(size);
+            for (int i = 0; i < size; i++)
+                bits.set(i);
+            bits.build();
+            assertEquals(size, bits.cardinality());
+            for (int i = 0; i < size; i++) {
+                assertTrue(bits.get(i));
+                assertEquals(i, bits.rank(i));
+                assertEquals(i, bits.select(i));
+            }
+            assertEquals(size, bits.rank(size));
+        }
+    }
+
+    @Test
+    public void wordBoundaries() throws Exception {
+        int[] shown = {0, 63, 64, 127, 128, 191, 192, 255};
+        RowBitSet bits = new RowBitSet(256);
+        for (int row : shown)
+            bits.set(row);
+        bits.build();
+
+        assertEquals(shown.length, bits.cardinality());
+        for (int k = 0; k < shown.length; k++) {
+            assertEquals(shown[k], bits.select(k));
+            assertEquals(k, bits.rank(shown[k]));
+            assertEquals(k + 1, bits.rank(shown[k] + 1));
+        }
+        assertFalse(bits.get(1));
+        assertFalse(bits.get(62));
+        assertFalse(bits.get(65));
+        assertEquals(1, bits.rank(63));
+        assertEquals(2, bits.rank(64));
+        assertEquals(shown.length, bits.rank(256));
+    }
+
+    @Test
+    public void randomSets_matchCounting() throws Exception {
+        Random random = new Random(17);
+        for (int n = 0; n < 50; n++) {
+            int size = 1 + random.nextInt(400);
+            boolean[] expected = new boolean[size];
+            RowBitSet bits = new RowBitSet(size);
+            for (int i = 0; i < size; i++) {
+                // dense and sparse sets
+                expected[i] = random.nextInt(n % 5 + 2) == 0;
+                if (expected[i])
+                    bits.set(i);
+            }
+            bits.build();
+
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                assertEquals(expected[i], bits.get(i));
+                assertEquals(count, bits.rank(i));
+                if (expected[i])
+                    assertEquals(i, bits.select(count++));
+            }
+            assertEquals(count, bits.cardinality());
+            assertEquals(count, bits.rank(size));
+        }
+    }
+}
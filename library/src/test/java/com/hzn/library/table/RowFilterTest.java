@@ -0,0 +1,193 @@
+package com.hzn.library.table;
+
+import android.app.Activity;
+
+import com.hzn.library.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Filtering rows, updating shown rows while filtered and showing all rows again,
+ * in every store mode.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class RowFilterTest {
+
+    private static final int ROWS = 10;
+    private static final int LINES = 3;
+    private static final float HEIGHT = 20.0f;
+
+    // shows the header row and rows with even numbers
+    private static final RowFilter EVEN_ROWS = new RowFilter() {
+        @Override
+        public boolean accept(int row, String[] texts) {
+            return texts[0].equals("r" + (row / 2 * 2));
+        }
+    };
+
+    private EasyTableView table;
+    // tasks of the sort executor, run by runTasks
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        // results are posted back, which needs the table attached
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        table = new EasyTableView(activity);
+        activity.setContentView(table);
+        table.setSortExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+
+        ArrayList<CellInfo> cellInfoList = new ArrayList<>();
+        for (int r = 0; r < ROWS; r++) {
+            for (int l = 0; l < LINES; l++) {
+                CellInfo cellInfo = new CellInfo();
+                cellInfo.row = r;
+                cellInfo.line = l;
+                cellInfo.width = 50.0f;
+                cellInfo.height = HEIGHT;
+                cellInfo.texts = new String[]{"r" + r, "l" + l};
+                cellInfoList.add(cellInfo);
+            }
+        }
+        table.setData(ROWS, LINES, cellInfoList);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty())
+            tasks.remove(0).run();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    private String text(int row, int line) {
+        return table.getCellInfo(row, line).texts[0];
+    }
+
+    @Test
+    public void filterRows_showsAcceptedRows() throws Exception {
+        assertTrue(table.filterRows(EVEN_ROWS));
+        assertFalse("applied before the filter is evaluated", table.isRowsFiltered());
+        runTasks();
+
+        assertTrue(table.isRowsFiltered());
+        assertEquals(ROWS / 2, table.getRows());
+        for (int r = 0; r < ROWS / 2; r++) {
+            assertEquals(2 * r, table.getUnfilteredRow(r));
+            assertEquals(r, table.getFilteredRow(2 * r));
+            assertEquals(-1, table.getFilteredRow(2 * r + 1));
+            assertEquals("r" + 2 * r, text(r, 0));
+        }
+
+        table.clearRowFilter();
+        assertFalse(table.isRowsFiltered());
+        assertEquals(ROWS, table.getRows());
+        for (int r = 0; r < ROWS; r++)
+            assertEquals("r" + r, text(r, 0));
+    }
+
+    @Test
+    public void updateData_whileFiltered_objectStore() throws Exception {
+        updateShownRow();
+    }
+
+    @Test
+    public void updateData_whileFiltered_packedStore() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_PACKED);
+        updateShownRow();
+    }
+
+    @Test
+    public void updateData_whileFiltered_sparseStore() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_SPARSE);
+        updateShownRow();
+    }
+
+    // edit shown row 3, which is row 6 of the whole table, as a clicked cell
+    private void updateShownRow() {
+        table.filterRows(EVEN_ROWS);
+        runTasks();
+
+        CellInfo cellInfo = table.getCellInfo(3, 1);
+        assertEquals(3, cellInfo.row);
+        cellInfo.texts = new String[]{"edited"};
+        cellInfo.height = 2 * HEIGHT;
+        table.updateData(cellInfo);
+
+        // the filter is kept
+        assertTrue(table.isRowsFiltered());
+        assertEquals(ROWS / 2, table.getRows());
+        assertEquals("edited", text(3, 1));
+        assertEquals(2 * HEIGHT, table.getRowHeight(3), 0.0f);
+
+        // data and height are in row 6 of the whole table
+        table.clearRowFilter();
+        assertEquals(ROWS, table.getRows());
+        for (int r = 0; r < ROWS; r++) {
+            for (int l = 0; l < LINES; l++)
+                assertEquals(r == 6 && l == 1 ? "edited" : "r" + r, text(r, l));
+            assertEquals(r == 6 ? 2 * HEIGHT : HEIGHT, table.getRowHeight(r), 0.0f);
+        }
+    }
+
+    @Test
+    public void filterRows_droppedWhileDataIsUpdated() throws Exception {
+        table.filterRows(EVEN_ROWS);
+        table.updateData(table.getCellInfo(1, 1));
+        runTasks();
+
+        assertFalse(table.isRowsFiltered());
+        assertEquals(ROWS, table.getRows());
+    }
+
+    @Test
+    public void filterRows_droppedByNewerFilter() throws Exception {
+        table.filterRows(EVEN_ROWS);
+        table.filterRows(new RowFilter() {
+            @Override
+            public boolean accept(int row, String[] texts) {
+                return row < 3;
+            }
+        });
+        runTasks();
+
+        assertEquals(3, table.getRows());
+        assertEquals(2, table.getUnfilteredRow(2));
+    }
+
+    @Test
+    public void setData_showsAllRows() throws Exception {
+        table.filterRows(EVEN_ROWS);
+        runTasks();
+
+        ArrayList<CellInfo> cellInfoList = new ArrayList<>();
+        CellInfo cellInfo = new CellInfo();
+        cellInfo.row = ROWS - 1;
+        cellInfo.line = 0;
+        cellInfo.texts = new String[]{"last"};
+        cellInfoList.add(cellInfo);
+        table.setData(cellInfoList);
+
+        assertFalse(table.isRowsFiltered());
+        assertEquals(ROWS, table.getRows());
+        assertEquals("last", text(ROWS - 1, 0));
+    }
+}
@@ -0,0 +1,102 @@
+package com.hzn.library.table;
+
+import android.app.Activity;
+
+import com.hzn.library.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Heights and offsets of rows after adding and removing rows at the head,
+ * the middle and the tail, compared with a list of heights.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class RowHeightsTest {
+
+    private static final int ROWS = 6;
+    private static final int LINES = 2;
+    private static final float DELTA = 0.001f;
+
+    private EasyTableView table;
+    private final List<Float> heights = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        table = new EasyTableView(activity);
+        activity.setContentView(table);
+
+        ArrayList<CellInfo> cellInfoList = new ArrayList<>();
+        for (int r = 0; r < ROWS; r++) {
+            heights.add(20.0f + r);
+            for (int l = 0; l < LINES; l++) {
+                CellInfo cellInfo = new CellInfo();
+                cellInfo.row = r;
+                cellInfo.line = l;
+                cellInfo.width = 50.0f;
+                cellInfo.height = 20.0f + r;
+                cellInfo.texts = new String[]{"r" + r};
+                cellInfoList.add(cellInfo);
+            }
+        }
+        table.setData(ROWS, LINES, cellInfoList);
+    }
+
+    private void addRows(int curRow, int newRows, float height, int direction) {
+        assertTrue(table.addNewRows(curRow, newRows, height, direction));
+        int row = direction == EasyTableView.ADD_ROWS_TOP ? curRow : curRow + 1;
+        for (int i = 0; i < newRows; i++)
+            heights.add(row, height);
+    }
+
+    private void removeRows(int start, int end) {
+        assertTrue(table.removeRows(start, end));
+        heights.subList(start, end + 1).clear();
+    }
+
+    private void assertHeights(String message) {
+        assertEquals(message, heights.size(), table.getRows());
+        float y = table.getCellInfo(0, 0).startY;
+        for (int r = 0; r < heights.size(); r++) {
+            assertEquals(message + ", row " + r, heights.get(r), table.getRowHeight(r), DELTA);
+            for (int l = 0; l < LINES; l++) {
+                CellInfo cellInfo = table.getCellInfo(r, l);
+                assertEquals(message + ", top of row " + r, y, cellInfo.startY, DELTA);
+                assertEquals(message + ", height of row " + r, heights.get(r), cellInfo.height, DELTA);
+            }
+            y += heights.get(r);
+        }
+    }
+
+    @Test
+    public void addAndRemoveRows_atHeadMiddleAndTail() throws Exception {
+        assertHeights("set");
+        addRows(0, 2, 31.0f, EasyTableView.ADD_ROWS_TOP);
+        assertHeights("added at the head");
+        addRows(3, 3, 32.0f, EasyTableView.ADD_ROWS_BOTTOM);
+        assertHeights("added in the middle");
+        addRows(table.getRows() - 1, 1, 33.0f, EasyTableView.ADD_ROWS_BOTTOM);
+        assertHeights("added at the tail");
+        removeRows(0, 1);
+        assertHeights("removed at the head");
+        removeRows(3, 5);
+        assertHeights("removed in the middle");
+        removeRows(table.getRows() - 2, table.getRows() - 1);
+        assertHeights("removed at the tail");
+        // the capacity of heights is kept while rows are added again
+        addRows(1, 6, 34.0f, EasyTableView.ADD_ROWS_BOTTOM);
+        assertHeights("added again");
+    }
+}
@@ -0,0 +1,204 @@
+package com.hzn.library.table;
+
+import android.app.Activity;
+
+import com.hzn.library.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sorting rows by a line on the sort executor, with rows reordered in every store mode,
+ * and results dropped while data is changed before they are applied.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class SortByLineTest {
+
+    // keys in line 0 of each row, the header row and an empty cell are null
+    private static final String[] KEYS = {null, "c", "a", "b", "a", "c", null, "b"};
+    // rows of the whole table sorted by keys, rows with equal keys keep their order
+    private static final int[] SORTED = {0, 2, 4, 3, 7, 1, 5, 6};
+
+    private EasyTableView table;
+    // tasks of the sort executor, run by runTasks
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        // results are posted back, which needs the table attached
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        table = new EasyTableView(activity);
+        activity.setContentView(table);
+        table.setSortExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+
+        ArrayList<CellInfo> cellInfoList = new ArrayList<>();
+        for (int r = 0; r < KEYS.length; r++) {
+            if (null != KEYS[r])
+                cellInfoList.add(cell(r, 0, KEYS[r], 10.0f + r));
+            cellInfoList.add(cell(r, 1, "r" + r, 10.0f + r));
+        }
+        table.setData(KEYS.length, 2, cellInfoList);
+    }
+
+    private static CellInfo cell(int row, int line, String text, float height) {
+        CellInfo cellInfo = new CellInfo();
+        cellInfo.row = row;
+        cellInfo.line = line;
+        cellInfo.width = 50.0f;
+        cellInfo.height = height;
+        cellInfo.texts = new String[]{text};
+        return cellInfo;
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty())
+            tasks.remove(0).run();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    // the original row of each shown row, -1 for rows added later
+    private int[] shownRows() {
+        int[] rows = new int[table.getRows()];
+        for (int r = 0; r < rows.length; r++) {
+            String[] texts = table.getCellInfo(r, 1).texts;
+            rows[r] = null == texts ? -1 : Integer.parseInt(texts[0].substring(1));
+        }
+        return rows;
+    }
+
+    @Test
+    public void sortByLine_stableOrder_objectStore() throws Exception {
+        sortAndCheck();
+    }
+
+    @Test
+    public void sortByLine_stableOrder_packedStore() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_PACKED);
+        sortAndCheck();
+    }
+
+    @Test
+    public void sortByLine_stableOrder_sparseStore() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_SPARSE);
+        sortAndCheck();
+    }
+
+    private void sortAndCheck() {
+        assertTrue(table.sortByLine(0));
+        assertArrayEquals("applied before rows are sorted", new int[]{0, 1, 2, 3, 4, 5, 6, 7}, shownRows());
+        runTasks();
+
+        assertArrayEquals(SORTED, shownRows());
+        for (int r = 0; r < SORTED.length; r++) {
+            // heights move with the rows
+            assertEquals(10.0f + SORTED[r], table.getRowHeight(r), 0.0f);
+            if (null == KEYS[SORTED[r]])
+                assertNull(table.getCellInfo(r, 0).texts);
+            else
+                assertEquals(KEYS[SORTED[r]], table.getCellInfo(r, 0).texts[0]);
+        }
+
+        // sorting again is composed with the current order
+        table.sortByLine(1);
+        runTasks();
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7}, shownRows());
+    }
+
+    @Test
+    public void sortByLine_comparator() throws Exception {
+        table.sortByLine(0, Collections.<String>reverseOrder());
+        runTasks();
+        // cells without texts are still sorted last
+        assertArrayEquals(new int[]{0, 1, 5, 3, 7, 2, 4, 6}, shownRows());
+    }
+
+    @Test
+    public void sortByLine_droppedWhileDataIsUpdated() throws Exception {
+        table.sortByLine(0);
+        table.updateData(cell(1, 0, "z", 11.0f));
+        runTasks();
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7}, shownRows());
+    }
+
+    @Test
+    public void sortByLine_droppedWhileRowsAreAdded() throws Exception {
+        table.sortByLine(0);
+        table.addNewRows(1, 1, -1, EasyTableView.ADD_ROWS_BOTTOM);
+        runTasks();
+        assertArrayEquals(new int[]{0, 1, -1, 2, 3, 4, 5, 6, 7}, shownRows());
+    }
+
+    @Test
+    public void sortByLine_droppedByNewerSort() throws Exception {
+        table.sortByLine(0);
+        table.sortByLine(0, Collections.<String>reverseOrder());
+        runTasks();
+        assertArrayEquals(new int[]{0, 1, 5, 3, 7, 2, 4, 6}, shownRows());
+    }
+
+    @Test
+    public void sortByLine_refusedWhileFiltered() throws Exception {
+        table.filterRows(new RowFilter() {
+            @Override
+            public boolean accept(int row, String[] texts) {
+                return row % 2 == 0;
+            }
+        });
+        runTasks();
+        assertFalse(table.sortByLine(0));
+    }
+
+    @Test
+    public void addAndRemoveRows_afterSorting_objectStore() throws Exception {
+        editSortedRows();
+    }
+
+    @Test
+    public void addAndRemoveRows_afterSorting_packedStore() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_PACKED);
+        editSortedRows();
+    }
+
+    @Test
+    public void addAndRemoveRows_afterSorting_sparseStore() throws Exception {
+        table.setStoreMode(EasyTableView.STORE_MODE_SPARSE);
+        editSortedRows();
+    }
+
+    // rows are moved in storage by the sort order before rows are inserted or removed
+    private void editSortedRows() {
+        table.sortByLine(0);
+        runTasks();
+
+        assertTrue(table.addNewRows(2, 2, 30.0f, EasyTableView.ADD_ROWS_BOTTOM));
+        assertArrayEquals(new int[]{0, 2, 4, -1, -1, 3, 7, 1, 5, 6}, shownRows());
+        assertEquals(30.0f, table.getRowHeight(3), 0.0f);
+        assertEquals(10.0f + 3, table.getRowHeight(5), 0.0f);
+
+        assertTrue(table.removeRows(5, 6));
+        assertArrayEquals(new int[]{0, 2, 4, -1, -1, 1, 5, 6}, shownRows());
+        assertEquals(10.0f + 1, table.getRowHeight(5), 0.0f);
+    }
+}
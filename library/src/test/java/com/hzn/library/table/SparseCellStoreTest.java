@@ -0,0 +1,90 @@
+package com.hzn.library.table;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Keys of populated cells in the sparse store, moved while rows and lines are inserted,
+ * removed and moved, compared with a reference grid.
+ */
+public class SparseCellStoreTest {
+
+    private static final int SPARSE = EasyTableView.STORE_MODE_SPARSE;
+
+    // only some of the cells are populated
+    private static StoreModel sparseModel(Random random, int rows, int lines) {
+        StoreModel model = new StoreModel(SPARSE, rows, lines);
+        for (int r = 0; r < rows; r++)
+            for (int l = 0; l < lines; l++)
+                if (random.nextInt(3) == 0)
+                    model.set(r, l);
+        return model;
+    }
+
+    @Test
+    public void insertRowsAndLines_rekeysFollowingCells() throws Exception {
+        StoreModel model = sparseModel(new Random(0), 8, 6);
+        model.insertRows(0, 2);
+        model.assertMatches("rows inserted at the head");
+        model.insertRows(5, 3);
+        model.assertMatches("rows inserted in the middle");
+        model.insertRows(model.rows(), 1);
+        model.assertMatches("rows inserted at the tail");
+        model.insertLines(0, 1);
+        model.insertLines(3, 2);
+        model.insertLines(model.lines(), 2);
+        model.assertMatches("lines inserted");
+        // new cells are empty
+        assertTrue(model.store.get(0, 0).isEmpty());
+        assertTrue(model.store.get(5, 3).isEmpty());
+    }
+
+    @Test
+    public void removeRowsAndLines_recyclesRemovedCells() throws Exception {
+        StoreModel model = new StoreModel(SPARSE, 6, 5);
+        model.fill();
+        int hits = model.recycler.getHitCount();
+        model.removeRows(1, 2);
+        model.assertMatches("rows removed");
+        model.removeLines(0, 1);
+        model.assertMatches("lines removed");
+
+        // every other cell of the model is taken from the pool, 18 cells are removed,
+        // so the pool is empty before and holds 9 of them after
+        for (int i = 0; i < 18; i++)
+            model.recycler.obtain();
+        assertEquals(9, model.recycler.getHitCount() - hits);
+    }
+
+    @Test
+    public void randomChanges() throws Exception {
+        Random random = new Random(2);
+        StoreModel model = sparseModel(random, 10, 6);
+        for (int i = 0; i < 2000; i++) {
+            int rows = model.rows();
+            int lines = model.lines();
+            int op = random.nextInt(6);
+            if (op == 0) {
+                model.set(random.nextInt(rows), random.nextInt(lines));
+            } else if (op == 1 && rows < 30) {
+                model.insertRows(random.nextInt(rows + 1), 1 + random.nextInt(3));
+            } else if (op == 2 && rows > 2) {
+                int start = random.nextInt(rows - 1);
+                model.removeRows(start, start + random.nextInt(Math.min(3, rows - 1 - start)));
+            } else if (op == 3 && lines < 12) {
+                model.insertLines(random.nextInt(lines + 1), 1 + random.nextInt(3));
+            } else if (op == 4 && lines > 2) {
+                int start = random.nextInt(lines - 1);
+                model.removeLines(start, start + random.nextInt(Math.min(3, lines - 1 - start)));
+            } else if (op == 5) {
+                int count = 1 + random.nextInt(lines);
+                model.moveLines(random.nextInt(lines - count + 1), random.nextInt(lines - count + 1), count);
+            }
+            model.assertMatches("step " + i + " op " + op);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.hzn.library.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Reference grid of texts for tests of cell stores, rows and lines are changed
+ * the same way in the grid and in the store, then every cell is compared.
+ */
+class StoreModel {
+
+    static final int[] STORE_MODES = {EasyTableView.STORE_MODE_OBJECT,
+            EasyTableView.STORE_MODE_PACKED, EasyTableView.STORE_MODE_SPARSE};
+
+    final CellRecycler recycler = new CellRecycler(64);
+    final StylePool stylePool = new StylePool();
+    final CellStore store;
+    private final int storeMode;
+    private final List<List<String>> grid = new ArrayList<>();
+    private int lines;
+    // texts of cells are unique, so that a cell found in a wrong place is noticed
+    private int nextId;
+
+    StoreModel(int storeMode, int rows, int lines) {
+        this.storeMode = storeMode;
+        if (storeMode == EasyTableView.STORE_MODE_PACKED)
+            store = new PackedCellStore(null, stylePool);
+        else if (storeMode == EasyTableView.STORE_MODE_SPARSE)
+            store = new SparseCellStore(recycler);
+        else
+            store = new ObjectCellStore(recycler);
+        store.reset(rows, lines);
+        this.lines = lines;
+        for (int r = 0; r < rows; r++)
+            grid.add(emptyRow());
+    }
+
+    private List<String> emptyRow() {
+        return new ArrayList<>(Collections.<String>nCopies(lines, null));
+    }
+
+    int rows() {
+        return grid.size();
+    }
+
+    int lines() {
+        return lines;
+    }
+
+    /**
+     * set a cell with a new text, cells of the table are taken from the pool, so that
+     * a cell recycled by the store but still kept in it loses its text
+     */
+    void set(int row, int line) {
+        String text = "c" + nextId++;
+        CellInfo cellInfo = nextId % 2 == 0 ? recycler.obtain() : new CellInfo();
+        cellInfo.texts = new String[]{text};
+        store.set(row, line, cellInfo);
+        grid.get(row).set(line, text);
+    }
+
+    void fill() {
+        for (int r = 0; r < rows(); r++)
+            for (int l = 0; l < lines; l++)
+                set(r, l);
+    }
+
+    void insertRows(int row, int count) {
+        store.applyRowOrder();
+        store.insertRows(row, count);
+        for (int i = 0; i < count; i++)
+            grid.add(row, emptyRow());
+    }
+
+    void removeRows(int start, int end) {
+        store.applyRowOrder();
+        store.removeRows(start, end);
+        grid.subList(start, end + 1).clear();
+    }
+
+    void insertLines(int line, int count) {
+        store.insertLines(line, count);
+        for (List<String> row : grid)
+            row.addAll(line, Collections.<String>nCopies(count, null));
+        lines += count;
+    }
+
+    void removeLines(int start, int end) {
+        store.removeLines(start, end);
+        for (List<String> row : grid)
+            row.subList(start, end + 1).clear();
+        lines -= end - start + 1;
+    }
+
+    void moveLines(int from, int to, int count) {
+        store.moveLines(from, to, count);
+        for (List<String> row : grid) {
+            List<String> moved = new ArrayList<>(row.subList(from, from + count));
+            row.subList(from, from + count).clear();
+            row.addAll(to, moved);
+        }
+    }
+
+    String text(int row, int line) {
+        String[] texts = store.get(row, line).texts;
+        return null == texts ? null : texts[0];
+    }
+
+    void assertMatches(String message) {
+        message = "store mode " + storeMode + ", " + message;
+        assertEquals(message, rows(), store.rows);
+        assertEquals(message, lines, store.lines);
+        for (int r = 0; r < rows(); r++)
+            for (int l = 0; l < lines; l++)
+                assertEquals(message + ", row " + r + ", line " + l, grid.get(r).get(l), text(r, l));
+    }
+}
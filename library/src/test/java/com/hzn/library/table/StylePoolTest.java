@@ -0,0 +1,129 @@
+package com.hzn.library.table;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Interning styles, and ids of styles used by cells of every store after the pool is compacted.
+ */
+public class StylePoolTest {
+
+    private static CellStyle style(int i) {
+        return new CellStyle(0xFF000000 | i, 10 + i % 7);
+    }
+
+    @Test
+    public void obtain_equalStylesShareId() throws Exception {
+        StylePool pool = new StylePool();
+        int id = pool.obtain(style(1));
+        assertEquals(id, pool.obtain(style(1)));
+        assertNotEquals(id, pool.obtain(style(2)));
+        // the same style by attributes of a cell
+        assertEquals(pool.obtain(0xFF000001, null, 11, null), id);
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void obtain_takesDefaultsNotSetByStyle() throws Exception {
+        StylePool pool = new StylePool();
+        int id = pool.obtain(new CellStyle(null, new int[0], null, CellStyle.ALIGN_LEFT), 0xFF000000, 42);
+        CellStyle style = pool.get(id);
+        assertEquals(0xFF000000, style.getTextColor(0));
+        assertEquals(42, style.getTextSize(2));
+        assertEquals(CellStyle.ALIGN_LEFT, style.getAlign());
+        assertEquals(id, pool.obtain(new CellStyle(null, null, null, CellStyle.ALIGN_LEFT), 0xFF000000, 42));
+
+        // only the missing one is taken
+        id = pool.obtain(new CellStyle(new int[]{0xFF0000FF}, null, null, CellStyle.ALIGN_CENTER), 0xFF000000, 42);
+        assertEquals(0xFF0000FF, pool.get(id).getTextColor(1));
+        assertEquals(42, pool.get(id).getTextSize(0));
+        // a style setting both is interned as it is
+        CellStyle full = style(3);
+        assertSame(full, pool.get(pool.obtain(full, 0xFF000000, 42)));
+    }
+
+    @Test
+    public void compact_keepsOrderOfUsedStyles() throws Exception {
+        StylePool pool = new StylePool();
+        CellStyle[] styles = new CellStyle[40];
+        boolean[] used = new boolean[styles.length];
+        for (int i = 0; i < styles.length; i++) {
+            styles[i] = style(i);
+            assertEquals(i, pool.obtain(styles[i]));
+            used[i] = i % 3 == 0;
+        }
+
+        int[] newIds = pool.compact(used);
+        int count = 0;
+        for (int i = 0; i < styles.length; i++) {
+            if (used[i]) {
+                assertEquals(count++, newIds[i]);
+                assertSame(styles[i], pool.get(newIds[i]));
+                // found by the new id after compacting
+                assertEquals(newIds[i], pool.obtain(style(i)));
+            } else {
+                assertEquals(-1, newIds[i]);
+            }
+        }
+        assertEquals(count, pool.size());
+        // removed styles are added again after the used ones
+        assertEquals(count, pool.obtain(style(1)));
+    }
+
+    @Test
+    public void compact_remapsStylesOfCells() throws Exception {
+        int rows = 6;
+        int lines = 5;
+        for (int storeMode : StoreModel.STORE_MODES) {
+            StoreModel model = new StoreModel(storeMode, rows, lines);
+            StylePool pool = model.stylePool;
+            int[][] expected = new int[rows][lines];
+            for (int r = 0; r < rows; r++) {
+                for (int l = 0; l < lines; l++) {
+                    model.set(r, l);
+                    CellInfo cellInfo = model.store.get(r, l);
+                    cellInfo.styleId = pool.obtain(style(r * lines + l));
+                    model.store.set(r, l, cellInfo);
+                    expected[r][l] = r * lines + l;
+                }
+            }
+            // half of the cells are replaced by others with the shared style, the original styles are unused
+            for (int r = 0; r < rows; r += 2) {
+                for (int l = 0; l < lines; l++) {
+                    model.set(r, l);
+                    CellInfo cellInfo = model.store.get(r, l);
+                    cellInfo.styleId = pool.obtain(style(1000));
+                    model.store.set(r, l, cellInfo);
+                    expected[r][l] = 1000;
+                }
+            }
+
+            boolean[] used = new boolean[pool.size()];
+            model.store.markStyles(used);
+            int[] newIds = pool.compact(used);
+            model.store.remapStyles(newIds);
+            assertEquals((rows / 2) * lines + 1, pool.size());
+
+            for (int r = 0; r < rows; r++) {
+                for (int l = 0; l < lines; l++) {
+                    CellStyle style = pool.get(model.store.get(r, l).styleId);
+                    assertEquals("store mode " + storeMode + ", row " + r + ", line " + l,
+                            style(expected[r][l]).getTextColor(), style.getTextColor());
+                }
+            }
+            model.assertMatches("compacted");
+
+            // nothing is removed while every style is used
+            used = new boolean[pool.size()];
+            model.store.markStyles(used);
+            int[] ids = new int[pool.size()];
+            for (int i = 0; i < ids.length; i++)
+                ids[i] = i;
+            assertArrayEquals(ids, pool.compact(used));
+        }
+    }
+}
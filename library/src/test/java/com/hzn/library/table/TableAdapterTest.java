@@ -0,0 +1,134 @@
+package com.hzn.library.table;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.hzn.library.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Lines and rows of the adapter measured without size hints, and the touched
+ * cell kept while bound cells are released during the gesture.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class TableAdapterTest {
+
+    private static final int ROWS = 10;
+    private static final int LINES = 3;
+    private static final float WIDTH = 30.0f;
+    private static final float HEIGHT = 20.0f;
+    private static final float DELTA = 0.001f;
+
+    private EasyTableView table;
+
+    // cells are of the same size, except the wider and the higher one far from the first row and line
+    private final TableAdapter adapter = new TableAdapter() {
+        @Override
+        public int getRowCount() {
+            return ROWS;
+        }
+
+        @Override
+        public int getLineCount() {
+            return LINES;
+        }
+
+        @Override
+        public void onBindCell(CellInfo cellInfo, int row, int line) {
+            cellInfo.texts = new String[]{"r" + row + "l" + line};
+            cellInfo.width = row == 5 && line == 1 ? 80.0f : WIDTH;
+            cellInfo.height = row == 3 && line == 2 ? 50.0f : HEIGHT;
+        }
+
+        @Override
+        public float getRowHeight(int row) {
+            return -1.0f;
+        }
+
+        @Override
+        public float getLineWidth(int line) {
+            return -1.0f;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        table = new EasyTableView(activity);
+        activity.setContentView(table);
+        table.setAdapter(adapter);
+        table.measure(View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY));
+        table.layout(0, 0, 1000, 1000);
+    }
+
+    @Test
+    public void notifyDataSetChanged_measuresByFirstCells() throws Exception {
+        assertEquals(WIDTH, table.getLineWidth(1), DELTA);
+        assertEquals(HEIGHT, table.getRowHeight(3), DELTA);
+    }
+
+    @Test
+    public void bindCell_growsMeasuredLineAndRow() throws Exception {
+        table.getCellInfo(5, 1);
+        table.getCellInfo(3, 2);
+        assertEquals(80.0f, table.getLineWidth(1), DELTA);
+        assertEquals(50.0f, table.getRowHeight(3), DELTA);
+        assertEquals(WIDTH, table.getLineWidth(2), DELTA);
+        assertEquals(HEIGHT, table.getRowHeight(4), DELTA);
+
+        // cells are laid out again by the grown slots
+        CellInfo cellInfo = table.getCellInfo(5, 1);
+        assertEquals(80.0f, cellInfo.width, DELTA);
+        assertEquals(cellInfo.startX + 80.0f, table.getCellInfo(5, 2).startX, DELTA);
+        cellInfo = table.getCellInfo(3, 0);
+        assertEquals(50.0f, cellInfo.height, DELTA);
+        assertEquals(cellInfo.startY + 50.0f, table.getCellInfo(4, 0).startY, DELTA);
+    }
+
+    @Test
+    public void click_whileBoundCellsAreReleased() throws Exception {
+        final List<CellInfo> clicked = new ArrayList<>();
+        table.setOnCellClickListener(new EasyTableView.OnCellClickListener() {
+            @Override
+            public void onCellClick(CellInfo cellInfo) {
+                clicked.add(cellInfo);
+            }
+
+            @Override
+            public void onMergedCellClick(MergeInfo mergeInfo) {
+            }
+        });
+        CellInfo cellInfo = table.getCellInfo(2, 1);
+        float x = cellInfo.startX + cellInfo.width / 2;
+        float y = cellInfo.startY + cellInfo.height / 2;
+
+        long time = SystemClock.uptimeMillis();
+        table.onTouchEvent(MotionEvent.obtain(time, time, MotionEvent.ACTION_DOWN, x, y, 0));
+        // every bound cell is released, except the touched one, then other cells are bound
+        table.notifyDataSetChanged();
+        for (int r = 0; r < ROWS; r++)
+            table.getCellInfo(r, 0);
+        assertEquals(2, cellInfo.row);
+        assertEquals(1, cellInfo.line);
+        table.onTouchEvent(MotionEvent.obtain(time, time + 10, MotionEvent.ACTION_UP, x, y, 0));
+
+        assertEquals(1, clicked.size());
+        assertEquals(2, clicked.get(0).row);
+        assertEquals(1, clicked.get(0).line);
+    }
+}